@@ -18,6 +18,7 @@
  */
 package ch.njol.skript;
 
+import ch.njol.skript.command.Commands;
 import ch.njol.skript.config.Config;
 import ch.njol.skript.config.Node;
 import ch.njol.skript.config.SectionNode;
@@ -26,14 +27,20 @@ import ch.njol.skript.events.bukkit.PreScriptLoadEvent;
 import ch.njol.skript.lang.Section;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.Statement;
+import ch.njol.skript.lang.Trigger;
 import ch.njol.skript.lang.TriggerItem;
 import ch.njol.skript.lang.TriggerSection;
+import ch.njol.skript.lang.function.Functions;
+import ch.njol.skript.lang.parser.ParseCache;
+import ch.njol.skript.lang.parser.ParseProfiler;
 import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.lang.parser.ScriptOptimizer;
 import ch.njol.skript.log.CountingLogHandler;
 import ch.njol.skript.log.LogEntry;
 import ch.njol.skript.log.RetainingLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.sections.SecLoop;
+import ch.njol.skript.structures.StructEvent;
 import ch.njol.skript.structures.StructOptions.OptionsData;
 import ch.njol.skript.util.ExceptionUtils;
 import ch.njol.skript.util.SkriptColor;
@@ -50,18 +57,24 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.skriptlang.skript.lang.script.Script;
 import org.skriptlang.skript.lang.structure.Structure;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
@@ -69,6 +82,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -483,10 +497,41 @@ public class ScriptLoader {
 	 * @return Info on the loaded scripts.
 	 */
 	private static CompletableFuture<ScriptInfo> loadScripts(List<Config> configs, OpenCloseable openCloseable) {
+		return loadScripts(configs, openCloseable, true);
+	}
+
+	/**
+	 * Loads the specified scripts.
+	 * @param callPreLoadEvent Whether a {@link PreScriptLoadEvent} should be called for the configs.
+	 *  This should only be false if the event was already called for them.
+	 * @see #loadScripts(List, OpenCloseable)
+	 */
+	private static CompletableFuture<ScriptInfo> loadScripts(List<Config> configs, OpenCloseable openCloseable, boolean callPreLoadEvent) {
 		if (configs.isEmpty()) // Nothing to load
 			return CompletableFuture.completedFuture(new ScriptInfo());
 
-		Bukkit.getPluginManager().callEvent(new PreScriptLoadEvent(configs));
+		if (callPreLoadEvent)
+			Bukkit.getPluginManager().callEvent(new PreScriptLoadEvent(configs));
+
+		// the loaded triggers are only published once all scripts have been loaded
+		SkriptEventHandler.deferTriggerChanges();
+		CompletableFuture<ScriptInfo> future;
+		try {
+			future = loadConfigs(configs, openCloseable);
+		} catch (Throwable throwable) {
+			SkriptEventHandler.publishTriggerChanges();
+			throw throwable;
+		}
+		return future.whenComplete((scriptInfo, throwable) -> SkriptEventHandler.publishTriggerChanges());
+	}
+
+	/**
+	 * Loads the specified scripts, without publishing their triggers.
+	 * @see #loadScripts(List, OpenCloseable)
+	 */
+	private static CompletableFuture<ScriptInfo> loadConfigs(List<Config> configs, OpenCloseable openCloseable) {
+		boolean profiling = startParseProfiler();
+		long foldedNodes = ScriptOptimizer.getFoldedNodes();
 		
 		ScriptInfo scriptInfo = new ScriptInfo();
 
@@ -535,7 +580,7 @@ public class ScriptLoader {
 						parser.setNode(structure.getEntryContainer().getSource());
 
 						try {
-							if (!structure.preLoad()) {
+							if (!profileStage(structure, Structure::preLoad)) {
 								pair.getFirst().getSecond().remove(structure);
 								return true;
 							}
@@ -563,7 +608,7 @@ public class ScriptLoader {
 						parser.setNode(structure.getEntryContainer().getSource());
 
 						try {
-							if (!structure.load()) {
+							if (!profileStage(structure, Structure::load)) {
 								pair.getFirst().getSecond().remove(structure);
 								return true;
 							}
@@ -586,7 +631,7 @@ public class ScriptLoader {
 						parser.setNode(structure.getEntryContainer().getSource());
 
 						try {
-							if (!structure.postLoad()) {
+							if (!profileStage(structure, Structure::postLoad)) {
 								pair.getFirst().getSecond().remove(structure);
 								return true;
 							}
@@ -600,6 +645,9 @@ public class ScriptLoader {
 					});
 					parser.setInactive();
 
+					if (ParseCache.isEnabled())
+						ParseCache.save();
+
 					return scriptInfo;
 				} catch (Exception e) {
 					// Something went wrong, we need to make sure the exception is printed
@@ -609,9 +657,32 @@ public class ScriptLoader {
 
 					openCloseable.close();
 				}
+			})
+			.whenComplete((scriptInfo, throwable) -> {
+				if (profiling)
+					stopParseProfiler();
+				if (Skript.logHigh()) {
+					long folded = ScriptOptimizer.getFoldedNodes() - foldedNodes;
+					if (folded > 0)
+						Skript.info("folded " + folded + " constant " + (folded == 1 ? "expression or condition" : "expressions and conditions") + " while loading");
+				}
 			});
 	}
 
+	/**
+	 * Starts the {@link ParseProfiler} if it is enabled and not already running.
+	 * @return Whether the profiler was started, in which case {@link #stopParseProfiler()} has to be called once loading is done.
+	 */
+	private static boolean startParseProfiler() {
+		return ParseProfiler.isEnabled() && ParseProfiler.startProfiling();
+	}
+
+	private static void stopParseProfiler() {
+		File report = ParseProfiler.stopProfiling();
+		if (report != null)
+			Skript.info("The parse profile has been written to " + report.getPath());
+	}
+
 	/**
 	 * Creates a script and loads the provided config into it.
 	 * @param config The config to load into a script.
@@ -632,6 +703,7 @@ public class ScriptLoader {
 				SkriptConfig.configs.add(config);
 			
 			try (CountingLogHandler ignored = new CountingLogHandler(SkriptLogger.SEVERE).start()) {
+				boolean profiling = ParseProfiler.isProfiling();
 				for (Node cnode : config.getMainNode()) {
 					if (!(cnode instanceof SectionNode)) {
 						Skript.error("invalid line - all code has to be put into triggers");
@@ -651,7 +723,10 @@ public class ScriptLoader {
 
 					line = replaceOptions(line);
 
+					long start = profiling ? System.nanoTime() : 0;
 					Structure structure = Structure.parse(line, node, "Can't understand this structure: " + line);
+					if (profiling)
+						ParseProfiler.recordStructure(node, structure, structure != null, System.nanoTime() - start);
 
 					if (structure == null)
 						continue;
@@ -769,6 +844,12 @@ public class ScriptLoader {
 		try {
 			String name = Skript.getInstance().getDataFolder().toPath().toAbsolutePath()
 					.resolve(Skript.SCRIPTSFOLDER).relativize(file.toPath().toAbsolutePath()).toString();
+			if (ParseCache.isEnabled()) {
+				// the contents are needed for validating the cached parse decisions of this script
+				byte[] content = Files.readAllBytes(file.toPath());
+				ParseCache.prepare(file, content);
+				return loadStructure(new ByteArrayInputStream(content), name);
+			}
 			return loadStructure(Files.newInputStream(file.toPath()), name);
 		} catch (IOException e) {
 			Skript.error("Could not load " + file.getName() + ": " + ExceptionUtils.toString(e));
@@ -820,18 +901,38 @@ public class ScriptLoader {
 			if (script.getConfig().getFile() == null)
 				throw new IllegalArgumentException("A script must have a file to be unloaded.");
 		}
+		return unloadScripts(scripts, false);
+	}
 
+	/**
+	 * Unloads all scripts present in the provided collection.
+	 * @param scripts The scripts to unload.
+	 * @param replaced Whether the scripts were replaced by other scripts, in which case they have already been
+	 *  removed from the loaded scripts, and the staged changes of the replacing scripts are published
+	 *  right after the structures of the replaced scripts have been unloaded.
+	 * @return Combined statistics for the unloaded scripts.
+	 * @see #finishReplacement()
+	 */
+	private static ScriptInfo unloadScripts(Set<Script> scripts, boolean replaced) {
 		ParserInstance parser = getParser();
 
 		// initial unload stage
-		for (Script script : scripts) {
-			parser.setActive(script);
-			for (Structure structure : script.getStructures())
-				structure.unload();
+		SkriptEventHandler.deferTriggerChanges();
+		try {
+			for (Script script : scripts) {
+				parser.setActive(script);
+				for (Structure structure : script.getStructures())
+					structure.unload();
+			}
+		} finally {
+			parser.setInactive();
+			if (replaced) {
+				Functions.publishChanges();
+				Commands.publishChanges();
+			}
+			SkriptEventHandler.publishTriggerChanges();
 		}
 
-		parser.setInactive();
-
 		// finish unloading + data collection
 		ScriptInfo info = new ScriptInfo();
 		for (Script script : scripts) {
@@ -846,10 +947,13 @@ public class ScriptLoader {
 			parser.setInactive();
 
 			script.clearData();
-			loadedScripts.remove(script); // We just unloaded it, so...
 			File scriptFile = script.getConfig().getFile();
 			assert scriptFile != null;
-			disabledScripts.add(new File(scriptFile.getParentFile(), DISABLED_SCRIPT_PREFIX + scriptFile.getName()));
+			if (!replaced)
+				loadedScripts.remove(script); // We just unloaded it, so...
+			// a replaced script whose file was loaded again isn't disabled (loaded scripts are compared by their files)
+			if (!replaced || !loadedScripts.contains(script))
+				disabledScripts.add(new File(scriptFile.getParentFile(), DISABLED_SCRIPT_PREFIX + scriptFile.getName()));
 		}
 
 		return info;
@@ -879,24 +983,380 @@ public class ScriptLoader {
 
 	/**
 	 * Reloads all provided Scripts.
+	 * The Scripts are parsed again while the old Scripts keep running, and replace them once all of them have been loaded.
+	 * The old Scripts are then unloaded, and the triggers, functions and commands of the new Scripts are published
+	 *  at once on the main thread, so that events and commands are always handled by either the old or the new Scripts.
 	 * @param scripts The Scripts to reload.
 	 * @param openCloseable An {@link OpenCloseable} that will be called before and after
 	 *                         each individual Script load (see {@link #makeFuture(Supplier, OpenCloseable)}).
 	 * @return Info on the loaded Scripts.
 	 */
 	public static CompletableFuture<ScriptInfo> reloadScripts(Set<Script> scripts, OpenCloseable openCloseable) {
-		unloadScripts(scripts);
+		SkriptEventHandler.deferTriggerChanges();
+		boolean profiling = startParseProfiler();
+		CompletableFuture<ScriptInfo> future;
+		try {
+			if (SkriptConfig.incrementalScriptReloading.value()) {
+				future = reloadChangedScripts(scripts, openCloseable);
+			} else {
+				future = reloadAllStructures(scripts, openCloseable);
+			}
+		} catch (Throwable throwable) {
+			SkriptEventHandler.publishTriggerChanges();
+			if (profiling)
+				stopParseProfiler();
+			throw throwable;
+		}
+		return future.whenComplete((scriptInfo, throwable) -> {
+			SkriptEventHandler.publishTriggerChanges();
+			if (profiling)
+				stopParseProfiler();
+		});
+	}
 
+	/**
+	 * Loads the Scripts present at the file in place of the provided Scripts.
+	 * The new Scripts are parsed while the old Scripts keep running. Once all of them have been loaded,
+	 *  the old Scripts are unloaded, and the triggers, functions and commands of the new Scripts are published
+	 *  at once on the main thread, so that events and commands are always handled by either the old or the new Scripts.
+	 * @param scripts The Scripts to replace. They are unloaded even if the file doesn't contain them anymore.
+	 * @param file The file to load. If this is a directory, all scripts within the directory and any subdirectories will be loaded.
+	 * @param openCloseable An {@link OpenCloseable} that will be called before and after
+	 *                         each individual Script load (see {@link #makeFuture(Supplier, OpenCloseable)}).
+	 * @return Info on the loaded Scripts.
+	 */
+	public static CompletableFuture<ScriptInfo> replaceScripts(Set<Script> scripts, File file, OpenCloseable openCloseable) {
+		return replaceScripts(scripts, loadStructures(file), openCloseable, true);
+	}
+
+	/**
+	 * The Scripts that are being replaced by the Scripts that are currently being loaded.
+	 * They are unloaded once all replacements are done.
+	 * @see #replaceScripts(Set, List, OpenCloseable, boolean)
+	 */
+	private static final Set<Script> replacedScripts = new HashSet<>();
+
+	/**
+	 * How many replacements of Scripts are currently in progress.
+	 */
+	private static int replacements = 0;
+
+	/**
+	 * Loads the provided configs in place of the provided Scripts.
+	 * @param callPreLoadEvent Whether a {@link PreScriptLoadEvent} should be called for the configs.
+	 *  This should only be false if the event was already called for them.
+	 * @see #replaceScripts(Set, File, OpenCloseable)
+	 */
+	private static CompletableFuture<ScriptInfo> replaceScripts(Set<Script> scripts, List<Config> configs, OpenCloseable openCloseable, boolean callPreLoadEvent) {
+		startReplacement(scripts);
+		CompletableFuture<ScriptInfo> future;
+		try {
+			future = loadScripts(configs, openCloseable, callPreLoadEvent);
+		} catch (Throwable throwable) {
+			finishReplacement();
+			throw throwable;
+		}
+		return future.whenComplete((scriptInfo, throwable) -> {
+			if (Bukkit.isPrimaryThread()) {
+				finishReplacement();
+			} else {
+				Bukkit.getScheduler().runTask(Skript.getInstance(), ScriptLoader::finishReplacement);
+			}
+		});
+	}
+
+	/**
+	 * Starts replacing the provided Scripts.
+	 * Until {@link #finishReplacement()} is called, the Scripts keep running, but aren't considered loaded anymore,
+	 *  and the changes of the Scripts that are loaded in the meantime are staged.
+	 */
+	private static void startReplacement(Set<Script> scripts) {
+		// scripts that were unloaded in the meantime (e.g. as their file was deleted) don't need to be replaced
+		Set<Script> loaded = new HashSet<>();
+		synchronized (loadedScripts) {
+			for (Script script : loadedScripts) {
+				if (scripts.contains(script))
+					loaded.add(script);
+			}
+		}
+		Set<String> names = loaded.stream()
+			.map(script -> script.getConfig().getFileName())
+			.collect(Collectors.toSet());
+
+		synchronized (replacedScripts) {
+			Functions.stageChanges(names);
+			Commands.stageChanges(loaded);
+			loadedScripts.removeAll(loaded);
+			replacedScripts.addAll(loaded);
+			replacements++;
+		}
+		SkriptEventHandler.deferTriggerChanges();
+	}
+
+	/**
+	 * Finishes a replacement started by {@link #startReplacement(Set)}.
+	 * Once all replacements are finished, the replaced Scripts are unloaded and all changes are published.
+	 * Must be called on the main thread.
+	 */
+	private static void finishReplacement() {
+		Set<Script> scripts = null;
+		synchronized (replacedScripts) {
+			if (--replacements == 0) {
+				scripts = new HashSet<>(replacedScripts);
+				replacedScripts.clear();
+			}
+		}
+		try {
+			if (scripts != null)
+				unloadScripts(scripts, true);
+		} finally {
+			SkriptEventHandler.publishTriggerChanges();
+		}
+	}
+
+	/**
+	 * Reloads all provided Scripts completely.
+	 */
+	private static CompletableFuture<ScriptInfo> reloadAllStructures(Set<Script> scripts, OpenCloseable openCloseable) {
 		List<Config> configs = new ArrayList<>();
 		for (Script script : scripts) {
 			//noinspection ConstantConditions - getFile should never return null
 			Config config = loadStructure(script.getConfig().getFile());
-			if (config == null)
-				return CompletableFuture.completedFuture(new ScriptInfo());
-			configs.add(config);
+			if (config != null) // Scripts that could not be read are just unloaded
+				configs.add(config);
 		}
 
-		return loadScripts(configs, openCloseable);
+		return replaceScripts(scripts, configs, openCloseable, true);
+	}
+
+	/**
+	 * Reloads all provided Scripts, only reloading the changed Structures of Scripts where that is possible.
+	 * Scripts where that is not possible are reloaded completely.
+	 * @see #reloadChangedStructures(Script, Config, OpenCloseable)
+	 */
+	private static CompletableFuture<ScriptInfo> reloadChangedScripts(Set<Script> scripts, OpenCloseable openCloseable) {
+		Map<Script, Config> configs = new LinkedHashMap<>();
+		for (Script script : scripts) {
+			//noinspection ConstantConditions - getFile should never return null
+			Config config = loadStructure(script.getConfig().getFile());
+			if (config != null) {
+				configs.put(script, config);
+			} else if (loadedScripts.contains(script)) { // the file could not be read
+				unloadScript(script);
+			}
+		}
+		if (configs.isEmpty())
+			return CompletableFuture.completedFuture(new ScriptInfo());
+
+		Bukkit.getPluginManager().callEvent(new PreScriptLoadEvent(new ArrayList<>(configs.values())));
+
+		ScriptInfo reloadedInfo = new ScriptInfo();
+		Set<Script> unloadingScripts = new HashSet<>();
+		List<Config> loadingConfigs = new ArrayList<>();
+		for (Map.Entry<Script, Config> entry : configs.entrySet()) {
+			ScriptInfo info = reloadChangedStructures(entry.getKey(), entry.getValue(), openCloseable);
+			if (info != null) {
+				reloadedInfo.add(info);
+			} else {
+				unloadingScripts.add(entry.getKey());
+				loadingConfigs.add(entry.getValue());
+			}
+		}
+		if (loadingConfigs.isEmpty())
+			return CompletableFuture.completedFuture(reloadedInfo);
+
+		return replaceScripts(unloadingScripts, loadingConfigs, openCloseable, false)
+			.thenApply(info -> {
+				info.add(reloadedInfo);
+				return info;
+			});
+	}
+
+	/**
+	 * Reloads only the Structures of a Script whose contents changed.
+	 * Structures are compared by the line and text of their top-level {@link SectionNode}s,
+	 *  meaning that Structures which moved within the file are reloaded as well, as their line numbers changed.
+	 * <br>
+	 * As other Structures (e.g. options or functions) may influence the parsing of the rest of the Script,
+	 *  only Scripts whose changes are limited to events can be reloaded this way.
+	 * All Structures are unloaded and loaded on the calling thread, so that no events can be executed in between.
+	 * @param script The Script to reload.
+	 * @param config The new contents of the Script.
+	 * @param openCloseable An {@link OpenCloseable} that will be called before and after the reload.
+	 * @return Info on the reloaded Script, or null if the Script has to be reloaded completely.
+	 */
+	@Nullable
+	private static ScriptInfo reloadChangedStructures(Script script, Config config, OpenCloseable openCloseable) {
+		// match the new nodes to the loaded structures
+		Map<String, Deque<Structure>> loadedStructures = new HashMap<>();
+		for (Structure structure : script.getStructures()) {
+			loadedStructures.computeIfAbsent(getNodeKey(structure.getEntryContainer().getSource()), key -> new ArrayDeque<>())
+				.add(structure);
+		}
+		Map<Node, Structure> unchangedStructures = new HashMap<>();
+		List<Node> changedNodes = new ArrayList<>();
+		for (Node node : config.getMainNode()) {
+			Deque<Structure> matches = loadedStructures.get(getNodeKey(node));
+			if (matches != null && !matches.isEmpty()) {
+				unchangedStructures.put(node, matches.poll());
+			} else {
+				changedNodes.add(node);
+			}
+		}
+		List<Structure> removedStructures = loadedStructures.values().stream()
+			.flatMap(Deque::stream)
+			.collect(Collectors.toList());
+		for (Structure structure : removedStructures) {
+			if (!(structure instanceof StructEvent))
+				return null;
+		}
+
+		ParserInstance parser = getParser();
+		try {
+			openCloseable.open();
+
+			// parse the changed structures
+			Map<Node, Structure> changedStructures = new HashMap<>();
+			RetainingLogHandler parseLog = SkriptLogger.startRetainingLog();
+			try {
+				parser.setActive(script);
+				boolean profiling = ParseProfiler.isProfiling();
+				for (Node node : changedNodes) {
+					if (!(node instanceof SectionNode)) {
+						Skript.error("invalid line - all code has to be put into triggers");
+						continue;
+					}
+
+					String line = node.getKey();
+					if (line == null || !SkriptParser.validateLine(line))
+						continue;
+					line = replaceOptions(line);
+
+					long start = profiling ? System.nanoTime() : 0;
+					Structure structure = Structure.parse(line, (SectionNode) node, "Can't understand this structure: " + line);
+					if (profiling)
+						ParseProfiler.recordStructure(node, structure, structure != null, System.nanoTime() - start);
+					if (structure == null)
+						continue;
+					if (!(structure instanceof StructEvent)) { // this structure may affect the rest of the script
+						parseLog.clear();
+						parseLog.printLog();
+						return null;
+					}
+					changedStructures.put(node, structure);
+				}
+			} finally {
+				parser.setInactive();
+				parseLog.stop();
+			}
+			parseLog.printLog();
+
+			// swap the removed structures for the changed ones
+			parser.setActive(script);
+			for (Structure structure : removedStructures)
+				structure.unload();
+			for (Structure structure : removedStructures)
+				structure.postUnload();
+
+			List<Structure> loadingStructures = new ArrayList<>(changedStructures.values());
+			loadingStructures.sort(Comparator.comparing(Structure::getPriority));
+			loadingStructures.removeIf(structure -> !runLoadingStage(structure, Structure::preLoad, "preLoad"));
+			loadingStructures.removeIf(structure -> !runLoadingStage(structure, Structure::load, "load"));
+			loadingStructures.removeIf(structure -> !runLoadingStage(structure, Structure::postLoad, "postLoad"));
+
+			List<Structure> structures = new ArrayList<>();
+			for (Node node : config.getMainNode()) {
+				Structure structure = unchangedStructures.get(node);
+				if (structure == null) {
+					structure = changedStructures.get(node);
+					if (structure == null || !loadingStructures.contains(structure))
+						continue;
+				}
+				structures.add(structure);
+			}
+			script.setStructures(structures);
+			script.setConfig(config);
+
+			// reloaded triggers were registered after all others, move them back to their place in the file
+			List<Trigger> triggers = new ArrayList<>();
+			for (Structure structure : structures) {
+				if (structure instanceof StructEvent) {
+					Trigger trigger = ((StructEvent) structure).getSkriptEvent().getTrigger();
+					if (trigger != null)
+						triggers.add(trigger);
+				}
+			}
+			SkriptEventHandler.reorderTriggers(triggers);
+
+			if (ParseCache.isEnabled())
+				ParseCache.save();
+
+			if (Skript.logHigh()) {
+				int count = changedStructures.size();
+				Skript.info("reloaded " + count + " changed structure" + (count == 1 ? "" : "s") + " of '" + config.getFileName() + "'");
+			}
+			return new ScriptInfo(1, structures.size());
+		} finally {
+			parser.setInactive();
+			openCloseable.close();
+		}
+	}
+
+	/**
+	 * Runs a loading stage of a Structure, handling any exceptions thrown by it.
+	 * {@link ParserInstance#getCurrentScript()} must already be set.
+	 * @return Whether the loading stage was successful.
+	 */
+	private static boolean runLoadingStage(Structure structure, Predicate<Structure> stage, String stageName) {
+		ParserInstance parser = getParser();
+		parser.setCurrentStructure(structure);
+		parser.setNode(structure.getEntryContainer().getSource());
+		try {
+			return profileStage(structure, stage);
+		} catch (Exception e) {
+			//noinspection ThrowableNotThrown
+			Skript.exception(e, "An error occurred while trying to " + stageName + " a Structure.");
+			return false;
+		} finally {
+			parser.setCurrentStructure(null);
+			parser.setNode(null);
+		}
+	}
+
+	/**
+	 * Runs a loading stage of a structure, recording the time it took if the {@link ParseProfiler} is running.
+	 * @return Whether the loading stage was successful.
+	 */
+	private static boolean profileStage(Structure structure, Predicate<Structure> stage) {
+		if (!ParseProfiler.isProfiling())
+			return stage.test(structure);
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			success = stage.test(structure);
+			return success;
+		} finally {
+			ParseProfiler.recordStructure(structure.getEntryContainer().getSource(), structure, success, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @return The line of a node followed by its full text, used for matching unchanged nodes.
+	 */
+	private static String getNodeKey(Node node) {
+		return node.getLine() + ":" + getNodeText(node);
+	}
+
+	/**
+	 * @return The full text of a node, including the text of all of its child nodes.
+	 */
+	private static String getNodeText(Node node) {
+		if (!(node instanceof SectionNode))
+			return node.save();
+		StringBuilder builder = new StringBuilder(node.save());
+		for (Node child : (SectionNode) node)
+			builder.append('\n').append(getNodeText(child));
+		return builder.toString();
 	}
 	
 	/*
@@ -929,6 +1389,7 @@ public class ScriptLoader {
 			parser.setIndentation(parser.getIndentation() + "    ");
 		
 		ArrayList<TriggerItem> items = new ArrayList<>();
+		boolean profiling = ParseProfiler.isProfiling();
 
 		for (Node subNode : node) {
 			parser.setNode(subNode);
@@ -941,13 +1402,16 @@ public class ScriptLoader {
 				continue;
 
 			if (subNode instanceof SimpleNode) {
-				long start = System.currentTimeMillis();
+				long start = System.nanoTime();
 				Statement stmt = Statement.parse(expr, "Can't understand this condition/effect: " + expr);
+				if (profiling)
+					ParseProfiler.recordLine(subNode, stmt != null, System.nanoTime() - start);
 				if (stmt == null)
 					continue;
+				stmt.setLineNumber(subNode.getLine());
 				long requiredTime = SkriptConfig.longParseTimeWarningThreshold.value().getMilliSeconds();
 				if (requiredTime > 0) {
-					long timeTaken = System.currentTimeMillis() - start;
+					long timeTaken = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 					if (timeTaken > requiredTime)
 						Skript.warning(
 							"The current line took a long time to parse (" + new Timespan(timeTaken) + ")."
@@ -962,9 +1426,13 @@ public class ScriptLoader {
 			} else if (subNode instanceof SectionNode) {
 				TypeHints.enterScope(); // Begin conditional type hints
 
+				long start = profiling ? System.nanoTime() : 0;
 				Section section = Section.parse(expr, "Can't understand this section: " + expr, (SectionNode) subNode, items);
+				if (profiling)
+					ParseProfiler.recordLine(subNode, section != null, System.nanoTime() - start);
 				if (section == null)
 					continue;
+				section.setLineNumber(subNode.getLine());
 
 				if (Skript.debug() || subNode.debug())
 					Skript.debug(SkriptColor.replaceColorChar(parser.getIndentation() + section.toString(null, true)));
@@ -976,6 +1444,8 @@ public class ScriptLoader {
 			}
 		}
 		
+		ScriptOptimizer.optimize(items);
+
 		for (int i = 0; i < items.size() - 1; i++)
 			items.get(i).setNext(items.get(i + 1));
 
@@ -1045,18 +1515,6 @@ public class ScriptLoader {
 		return new ScriptInfo();
 	}
 
-	/**
-	 * Unloads all scripts present in the provided folder.
-	 * @param folder The folder containing scripts to unload.
-	 * @return Combined statistics for the unloaded scripts.
-	 *         This data is calculated by using {@link ScriptInfo#add(ScriptInfo)}.
-	 * @deprecated Use {@link #unloadScripts(Set)}.
-	 */
-	@Deprecated
-	private static ScriptInfo unloadScripts(File folder) {
-		return unloadScripts(getScripts(folder));
-	}
-
 	/**
 	 * Reloads a single script.
 	 * @param scriptFile The file representing the script to reload.
@@ -1065,8 +1523,8 @@ public class ScriptLoader {
 	 */
 	@Deprecated
 	public static CompletableFuture<ScriptInfo> reloadScript(File scriptFile, OpenCloseable openCloseable) {
-		unloadScript(scriptFile);
-		return loadScripts(scriptFile, openCloseable);
+		Script script = getScript(scriptFile);
+		return replaceScripts(script != null ? Collections.singleton(script) : Collections.emptySet(), scriptFile, openCloseable);
 	}
 
 	/**
@@ -1077,8 +1535,7 @@ public class ScriptLoader {
 	 */
 	@Deprecated
 	public static CompletableFuture<ScriptInfo> reloadScripts(File folder, OpenCloseable openCloseable) {
-		unloadScripts(folder);
-		return loadScripts(folder, openCloseable);
+		return replaceScripts(getScripts(folder), folder, openCloseable);
 	}
 
 	/**
@@ -31,6 +31,7 @@ import ch.njol.skript.classes.data.JavaClasses;
 import ch.njol.skript.classes.data.SkriptClasses;
 import ch.njol.skript.command.Commands;
 import ch.njol.skript.doc.Documentation;
+import ch.njol.skript.effects.Delay;
 import ch.njol.skript.events.EvtSkript;
 import ch.njol.skript.hooks.Hook;
 import ch.njol.skript.lang.Condition;
@@ -698,6 +699,7 @@ public final class Skript extends JavaPlugin implements Listener {
 									classes.removeIf(Class::isLocalClass);
 									// Test that requires package access. This is only present when compiling with src/test.
 									classes.add(Class.forName("ch.njol.skript.variables.FlatFileStorageTest"));
+									classes.add(Class.forName("ch.njol.skript.util.TimingWheelTest"));
 									size = classes.size();
 									for (Class<?> clazz : classes) {
 										// Reset class SkriptJUnitTest which stores test requirements.
@@ -908,6 +910,8 @@ public final class Skript extends JavaPlugin implements Listener {
 		
 		// Tell Timings that we are here!
 		SkriptTimings.setSkript(this);
+
+		Delay.startContinuations();
 	}
 	
 	/**
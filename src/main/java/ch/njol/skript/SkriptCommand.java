@@ -18,10 +18,17 @@
  */
 package ch.njol.skript;
 
+import ch.njol.skript.ScriptLoader.ScriptInfo;
 import ch.njol.skript.aliases.Aliases;
 import ch.njol.skript.command.CommandHelp;
 import ch.njol.skript.doc.Documentation;
 import ch.njol.skript.doc.HTMLGenerator;
+import ch.njol.skript.effects.Delay;
+import ch.njol.skript.lang.LoopSection;
+import ch.njol.skript.lang.function.Function;
+import ch.njol.skript.lang.function.FunctionCache;
+import ch.njol.skript.lang.function.Functions;
+import ch.njol.skript.lang.util.ExpressionMemo;
 import ch.njol.skript.localization.ArgsMessage;
 import ch.njol.skript.localization.Language;
 import ch.njol.skript.localization.PluralizingArgsMessage;
@@ -30,8 +37,11 @@ import ch.njol.skript.log.TimingLogHandler;
 import ch.njol.skript.test.runner.SkriptTestEvent;
 import ch.njol.skript.test.runner.TestMode;
 import ch.njol.skript.test.runner.TestTracker;
+import ch.njol.skript.timings.ExecutionProfiler;
+import ch.njol.skript.util.AsyncExecutor;
 import ch.njol.skript.util.ExceptionUtils;
 import ch.njol.skript.util.FileUtils;
+import ch.njol.skript.util.PeriodicalScheduler;
 import ch.njol.skript.util.SkriptColor;
 import ch.njol.util.OpenCloseable;
 import ch.njol.util.StringUtils;
@@ -52,6 +62,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class SkriptCommand implements CommandExecutor {
@@ -78,6 +89,9 @@ public class SkriptCommand implements CommandExecutor {
 			.add("check")
 			.add("changes")
 			.add("download")
+		).add(new CommandHelp("profile", SkriptColor.DARK_RED)
+			.add("start")
+			.add("stop")
 		).add("info"
 		).add("help");
 
@@ -137,8 +151,8 @@ public class SkriptCommand implements CommandExecutor {
 					Aliases.clear();
 					Aliases.load();
 
-					ScriptLoader.unloadScripts(ScriptLoader.getLoadedScripts());
-					ScriptLoader.loadScripts(Skript.getInstance().getScriptsFolder(), OpenCloseable.combine(logHandler, timingLogHandler))
+					// the old scripts keep running until the new ones are ready
+					ScriptLoader.replaceScripts(ScriptLoader.getLoadedScripts(), Skript.getInstance().getScriptsFolder(), OpenCloseable.combine(logHandler, timingLogHandler))
 						.thenAccept(info -> {
 							if (info.files == 0)
 								Skript.warning(Skript.m_no_scripts.toString());
@@ -149,8 +163,8 @@ public class SkriptCommand implements CommandExecutor {
 				else if (args[1].equalsIgnoreCase("scripts")) {
 					reloading(sender, "scripts");
 
-					ScriptLoader.unloadScripts(ScriptLoader.getLoadedScripts());
-					ScriptLoader.loadScripts(Skript.getInstance().getScriptsFolder(), OpenCloseable.combine(logHandler, timingLogHandler))
+					// the old scripts keep running until the new ones are ready
+					ScriptLoader.replaceScripts(ScriptLoader.getLoadedScripts(), Skript.getInstance().getScriptsFolder(), OpenCloseable.combine(logHandler, timingLogHandler))
 						.thenAccept(info -> {
 							if (info.files == 0)
 								Skript.warning(Skript.m_no_scripts.toString());
@@ -185,17 +199,20 @@ public class SkriptCommand implements CommandExecutor {
 						reloading(sender, "script", scriptFile.getName());
 
 						Script script = ScriptLoader.getScript(scriptFile);
-						if (script != null)
-							ScriptLoader.unloadScript(script);
-						ScriptLoader.loadScripts(scriptFile, OpenCloseable.combine(logHandler, timingLogHandler))
+						CompletableFuture<ScriptInfo> future;
+						if (script != null) {
+							future = ScriptLoader.reloadScript(script, OpenCloseable.combine(logHandler, timingLogHandler));
+						} else {
+							future = ScriptLoader.loadScripts(scriptFile, OpenCloseable.combine(logHandler, timingLogHandler));
+						}
+						future
 							.thenAccept(scriptInfo ->
 								reloaded(sender, logHandler, timingLogHandler, "script", scriptFile.getName())
 							);
 					} else {
 						final String fileName = scriptFile.getName();
 						reloading(sender, "scripts in folder", fileName);
-						ScriptLoader.unloadScripts(ScriptLoader.getScripts(scriptFile));
-						ScriptLoader.loadScripts(scriptFile, OpenCloseable.combine(logHandler, timingLogHandler))
+						ScriptLoader.replaceScripts(ScriptLoader.getScripts(scriptFile), scriptFile, OpenCloseable.combine(logHandler, timingLogHandler))
 							.thenAccept(scriptInfo -> {
 								if (scriptInfo.files == 0) {
 									info(sender, "reload.empty folder", fileName);
@@ -356,6 +373,27 @@ public class SkriptCommand implements CommandExecutor {
 				}
 			}
 
+			else if (args[0].equalsIgnoreCase("profile")) {
+				if (args[1].equalsIgnoreCase("start")) {
+					if (ExecutionProfiler.startProfiling()) {
+						info(sender, "profile.started");
+					} else {
+						error(sender, "profile.already started");
+					}
+				} else if (args[1].equalsIgnoreCase("stop")) {
+					if (!ExecutionProfiler.isProfiling()) {
+						error(sender, "profile.not started");
+						return true;
+					}
+					File file = ExecutionProfiler.stopProfiling();
+					if (file != null) {
+						info(sender, "profile.stopped", file.getName());
+					} else {
+						error(sender, "profile.error");
+					}
+				}
+			}
+
 			else if (args[0].equalsIgnoreCase("info")) {
 				info(sender, "info.aliases");
 				info(sender, "info.documentation");
@@ -393,6 +431,24 @@ public class SkriptCommand implements CommandExecutor {
 				if (!dependenciesFound)
 					info(sender, "info.dependencies", "None");
 
+				info(sender, "info.delays", Delay.getPendingContinuations());
+				info(sender, "info.budgeted loops", LoopSection.getSplitExecutions());
+				info(sender, "info.periodical", PeriodicalScheduler.getScheduledTasks(), PeriodicalScheduler.getMaxTasksPerTick(),
+					String.format("%.2f", PeriodicalScheduler.getMaxTimePerTick()), String.format("%.2f", PeriodicalScheduler.getAverageTimePerTick()));
+				info(sender, "info.async", AsyncExecutor.getQueueDepth(), String.format("%.2f", AsyncExecutor.getAverageLatency()),
+					AsyncExecutor.isUsingVirtualThreads() ? "virtual threads" : "Bukkit scheduler");
+				SkriptEventHandler.getHandoffLatencies().forEach((eventClass, latency) ->
+					info(sender, "info.handoff", eventClass.getSimpleName(), latency.getHandoffs(),
+						String.format("%.2f", latency.getAverageLatency()), String.format("%.2f", latency.getMaxLatency())));
+
+				if (ExpressionMemo.isEnabled())
+					info(sender, "info.expression memo", ExpressionMemo.getHits(), ExpressionMemo.getMisses());
+				for (Function<?> function : Functions.getCachedFunctions()) {
+					FunctionCache cache = function.getCache();
+					assert cache != null;
+					info(sender, "info.function cache", function.getName(), cache.getHits(), cache.getMisses());
+				}
+
 			}
 
 			else if (args[0].equalsIgnoreCase("gen-docs")) {
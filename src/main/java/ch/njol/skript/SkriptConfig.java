@@ -187,10 +187,65 @@ public class SkriptConfig {
 	public static final Option<Boolean> disableVariableStartingWithExpressionWarnings =
 		new Option<>("disable starting a variable's name with an expression warnings", false);
 	
-	@Deprecated
+	/**
+	 * Whether the syntax elements that lines were parsed as should be remembered across restarts.
+	 * @see ch.njol.skript.lang.parser.ParseCache
+	 */
 	public static final Option<Boolean> enableScriptCaching = new Option<>("enable script caching", false)
 			.optional(true);
 	
+	public static final Option<Boolean> incrementalScriptReloading = new Option<>("incremental script reloading", false)
+			.optional(true);
+	
+	/**
+	 * Whether script loads should be profiled.
+	 * @see ch.njol.skript.lang.parser.ParseProfiler
+	 */
+	public static final Option<Boolean> enableParseProfiler = new Option<>("enable parse profiler", false)
+			.optional(true);
+	
+	/**
+	 * How often a trigger has to be executed before it is compiled, or 0 to never compile triggers.
+	 * @see ch.njol.skript.lang.TriggerCompiler
+	 */
+	public static final Option<Integer> triggerCompileThreshold = new Option<>("trigger compile threshold", 0)
+			.optional(true);
+	
+	/**
+	 * Whether the values of memoizable expressions should be remembered during trigger executions.
+	 * @see ch.njol.skript.lang.util.ExpressionMemo
+	 */
+	public static final Option<Boolean> memoizeExpressions = new Option<>("memoize expressions", false)
+			.optional(true);
+	
+	/**
+	 * How many different argument lists each cached function remembers the return values of.
+	 * @see ch.njol.skript.lang.function.FunctionCache
+	 */
+	public static final Option<Integer> functionCacheSize = new Option<>("function cache size", 256)
+			.optional(true);
+	
+	/**
+	 * How many milliseconds budgeted loops may run per tick before they pause until the next tick.
+	 * @see ch.njol.skript.lang.LoopSection
+	 */
+	public static final Option<Integer> budgetedLoopTimeSlice = new Option<>("budgeted loop time slice", 5)
+			.optional(true);
+	
+	/**
+	 * Whether asynchronous tasks should run on virtual threads if the JVM supports them.
+	 * @see ch.njol.skript.util.AsyncExecutor
+	 */
+	public static final Option<Boolean> useVirtualThreads = new Option<>("use virtual threads", true)
+			.optional(true);
+	
+	/**
+	 * How far the first run of periodical events may be moved, so that events with the same period run on different ticks.
+	 * @see ch.njol.skript.util.PeriodicalScheduler
+	 */
+	public static final Option<Timespan> periodicalEventJitter = new Option<>("periodical event jitter", new Timespan(1000))
+			.optional(true);
+	
 	public static final Option<Boolean> keepConfigsLoaded = new Option<>("keep configs loaded", false)
 			.optional(true);
 	
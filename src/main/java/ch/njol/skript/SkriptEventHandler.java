@@ -20,6 +20,9 @@ package ch.njol.skript;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,6 +30,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import org.bukkit.Bukkit;
@@ -43,11 +49,16 @@ import org.bukkit.plugin.RegisteredListener;
 import org.eclipse.jdt.annotation.Nullable;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Multimap;
 
+import ch.njol.skript.effects.Delay;
 import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerContext;
 import ch.njol.skript.timings.SkriptTimings;
+import ch.njol.skript.util.AsyncExecutor;
 import ch.njol.skript.util.Task;
 
 public final class SkriptEventHandler {
@@ -87,21 +98,140 @@ public final class SkriptEventHandler {
 	/**
 	 * A Multimap tracking what Triggers are paired with what Events.
 	 * Each Event effectively maps to an ArrayList of Triggers.
+	 * Changes to this map are only visible to events once they have been published.
+	 * @see #publishTriggerChanges()
 	 */
 	private static final Multimap<Class<? extends Event>, Trigger> triggers = ArrayListMultimap.create();
 
+	/**
+	 * An immutable copy of {@link #triggers} that is used for handling events.
+	 * It is replaced as a whole when changes are published, so that events never observe a partially loaded state.
+	 */
+	private static volatile TriggerSnapshot publishedTriggers = new TriggerSnapshot(ImmutableListMultimap.of());
+
+	/**
+	 * The events and priorities of which Triggers were unregistered since changes were last published.
+	 * Their listeners may be unregistered when the changes are published.
+	 */
+	private static final Multimap<Class<? extends Event>, EventPriority> unregisteredEvents = HashMultimap.create();
+
+	/**
+	 * How many callers are currently deferring the publishing of changes.
+	 * @see #deferTriggerChanges()
+	 */
+	private static int deferringCount = 0;
+
+	/**
+	 * A published state of {@link #triggers}.
+	 * Also caches the Triggers that apply to each Event class, as computing them is fairly expensive.
+	 */
+	private static final class TriggerSnapshot {
+
+		private final Multimap<Class<? extends Event>, Trigger> triggers;
+		private final Map<Class<? extends Event>, List<Trigger>> triggersByEvent = new ConcurrentHashMap<>();
+
+		private TriggerSnapshot(Multimap<Class<? extends Event>, Trigger> triggers) {
+			this.triggers = triggers;
+		}
+
+		private List<Trigger> getTriggers(Class<? extends Event> event) {
+			List<Trigger> eventTriggers = triggersByEvent.get(event);
+			if (eventTriggers == null) {
+				HandlerList eventHandlerList = getHandlerList(event);
+				assert eventHandlerList != null; // It had one at some point so this should remain true
+				eventTriggers = Collections.unmodifiableList(triggers.asMap().entrySet().stream()
+					.filter(entry -> entry.getKey().isAssignableFrom(event) && getHandlerList(entry.getKey()) == eventHandlerList)
+					.flatMap(entry -> entry.getValue().stream())
+					.collect(Collectors.toList()));
+				triggersByEvent.put(event, eventTriggers);
+			}
+			return eventTriggers;
+		}
+
+	}
+
 	/**
 	 * A utility method to get all Triggers registered under the provided Event class.
 	 * @param event The event to find pairs from.
-	 * @return A List containing all Triggers registered under the provided Event class.
+	 * @return A List containing all published Triggers registered under the provided Event class.
 	 */
 	private static List<Trigger> getTriggers(Class<? extends Event> event) {
-		HandlerList eventHandlerList = getHandlerList(event);
-		assert eventHandlerList != null; // It had one at some point so this should remain true
-		return triggers.asMap().entrySet().stream()
-				.filter(entry -> entry.getKey().isAssignableFrom(event) && getHandlerList(entry.getKey()) == eventHandlerList)
-				.flatMap(entry -> entry.getValue().stream())
-				.collect(Collectors.toList()); // forces evaluation now and prevents us from having to call getTriggers again if very high logging is enabled
+		return publishedTriggers.getTriggers(event);
+	}
+
+	/**
+	 * Defers the publishing of changes to the registered Triggers until {@link #publishTriggerChanges()} is called.
+	 * While changes are deferred, events are handled by the Triggers that were registered before,
+	 *  meaning that Triggers that are being unloaded keep handling events until their replacements are ready.
+	 * Scripts that are reloaded are only unloaded once their replacements are ready,
+	 *  right before the changes are published (see {@link ScriptLoader#replaceScripts}).
+	 * Every call of this method must be followed by exactly one call of {@link #publishTriggerChanges()}.
+	 */
+	public static void deferTriggerChanges() {
+		synchronized (triggers) {
+			deferringCount++;
+		}
+	}
+
+	/**
+	 * Publishes all changes to the registered Triggers at once, unless another caller is still deferring them.
+	 * The changes are always published on the main thread.
+	 * @see #deferTriggerChanges()
+	 */
+	public static void publishTriggerChanges() {
+		synchronized (triggers) {
+			if (deferringCount <= 0)
+				throw new IllegalStateException("Trigger changes are not being deferred");
+			if (--deferringCount > 0)
+				return;
+		}
+		if (Bukkit.isPrimaryThread()) {
+			publish();
+		} else {
+			Bukkit.getScheduler().runTask(Skript.getInstance(), SkriptEventHandler::publish);
+		}
+	}
+
+	/**
+	 * Replaces the published Triggers with the current state of {@link #triggers},
+	 *  and unregisters listeners that are no longer needed.
+	 * Must be called on the main thread.
+	 */
+	private static void publish() {
+		List<Entry<Class<? extends Event>, EventPriority>> unusedListeners = new ArrayList<>();
+		synchronized (triggers) {
+			if (deferringCount > 0) // a new deferral started before this task ran
+				return;
+			publishedTriggers = new TriggerSnapshot(ImmutableListMultimap.copyOf(triggers));
+
+			// check which listeners are not needed anymore
+			entryLoop: for (Entry<Class<? extends Event>, EventPriority> entry : unregisteredEvents.entries()) {
+				for (Trigger eventTrigger : triggers.get(entry.getKey())) {
+					if (eventTrigger.getEvent().getEventPriority() == entry.getValue())
+						continue entryLoop;
+				}
+				unusedListeners.add(entry);
+			}
+			unregisteredEvents.clear();
+		}
+
+		Skript skript = Skript.getInstance();
+		for (Entry<Class<? extends Event>, EventPriority> entry : unusedListeners) {
+			// We can attempt to unregister this listener
+			HandlerList handlerList = getHandlerList(entry.getKey());
+			if (handlerList == null)
+				continue;
+			for (RegisteredListener registeredListener : handlerList.getRegisteredListeners()) {
+				Listener listener = registeredListener.getListener();
+				if (
+					registeredListener.getPlugin() == skript
+					&& listener instanceof PriorityListener
+					&& ((PriorityListener) listener).priority == entry.getValue()
+				) {
+					handlerList.unregister(listener);
+				}
+			}
+		}
 	}
 
 	/**
@@ -143,35 +273,161 @@ public final class SkriptEventHandler {
 			return;
 		}
 
+		boolean mainThread = Bukkit.isPrimaryThread();
+		List<Trigger> asyncTriggers = null;
+		// consecutive triggers that must run on the main thread are run in one go, see runOnMainThread
+		List<Trigger> mainThreadTriggers = null;
 		for (Trigger trigger : triggers) {
 			SkriptEvent triggerEvent = trigger.getEvent();
 			if (triggerEvent.getEventPriority() != priority)
 				continue;
 
-			// these methods need to be run on whatever thread the trigger is
-			Runnable execute = () -> {
-				logTriggerStart(trigger);
-				Object timing = SkriptTimings.start(trigger.getDebugLabel());
-				trigger.execute(event);
-				SkriptTimings.stop(timing);
-				logTriggerEnd(trigger);
-			};
-
-			if (trigger.getEvent().canExecuteAsynchronously()) {
-				if (triggerEvent.check(event))
-					execute.run();
-			} else { // Ensure main thread
-				Task.callSync(() -> {
-					if (triggerEvent.check(event))
-						execute.run();
-					return null; // we don't care about a return value
-				});
+			if (!mainThread && !triggerEvent.canExecuteAsynchronously()) {
+				if (mainThreadTriggers == null)
+					mainThreadTriggers = new ArrayList<>();
+				mainThreadTriggers.add(trigger);
+				continue;
+			}
+
+			if (mainThreadTriggers != null) {
+				asyncTriggers = runOnMainThread(mainThreadTriggers, event, asyncTriggers);
+				mainThreadTriggers = null;
+			}
+			if (run(trigger, event)) {
+				if (asyncTriggers == null)
+					asyncTriggers = new ArrayList<>();
+				asyncTriggers.add(trigger);
+			}
+		}
+		if (mainThreadTriggers != null)
+			asyncTriggers = runOnMainThread(mainThreadTriggers, event, asyncTriggers);
+
+		if (asyncTriggers != null) {
+			for (Trigger trigger : asyncTriggers) {
+				// the async triggers of the event run at the same time, so each gets its own context
+				AsyncExecutor.execute(() -> TriggerContext.runIsolated(event, null, () -> {
+					Delay.addDelayedEvent(event);
+					execute(trigger, event);
+				}));
 			}
 		}
 
 		logEventEnd();
 	}
 
+	/**
+	 * Checks whether the given Trigger applies to the given Event, and runs it if it does.
+	 * @return Whether the Trigger applies, but belongs to an async event, so it has to run once the event has passed.
+	 */
+	private static boolean run(Trigger trigger, Event event) {
+		SkriptEvent triggerEvent = trigger.getEvent();
+		if (!triggerEvent.check(event))
+			return false;
+		if (triggerEvent.isAsync())
+			return true;
+		execute(trigger, event);
+		return false;
+	}
+
+	/**
+	 * Runs the given Triggers in order on the main thread, while this thread waits.
+	 * All Triggers are run by a single task, so that an async event waits for the main thread only once,
+	 *  no matter how many Triggers it has. How long it waited is recorded in {@link #getHandoffLatencies()}.
+	 * Exceptions are handled for each Trigger, like they would be if each Trigger was run by its own task.
+	 * @param asyncTriggers The Triggers of async events found so far, or null if none were found.
+	 * @return The given Triggers of async events, with the ones found by this call added.
+	 */
+	@Nullable
+	private static List<Trigger> runOnMainThread(List<Trigger> triggers, Event event, @Nullable List<Trigger> asyncTriggers) {
+		long submitted = System.nanoTime();
+		List<Trigger> found = Task.callSync(() -> {
+			handoffLatencies.computeIfAbsent(event.getClass(), eventClass -> new HandoffLatency())
+				.record(System.nanoTime() - submitted);
+			List<Trigger> foundTriggers = new ArrayList<>(0);
+			for (Trigger trigger : triggers) {
+				// an exception of one Trigger must not keep the rest of the batch (or the async Triggers found so far) from running
+				try {
+					if (run(trigger, event))
+						foundTriggers.add(trigger);
+				} catch (Exception ex) {
+					Skript.exception(ex, "An error occurred while running the trigger '" + trigger.getDebugLabel() + "' for " + event.getEventName() + ".");
+				}
+			}
+			return foundTriggers;
+		});
+		if (found == null || found.isEmpty())
+			return asyncTriggers;
+		if (asyncTriggers == null)
+			return found;
+		asyncTriggers.addAll(found);
+		return asyncTriggers;
+	}
+
+	/**
+	 * How long async events of each class waited for their Triggers to start on the main thread.
+	 */
+	private static final Map<Class<? extends Event>, HandoffLatency> handoffLatencies = new ConcurrentHashMap<>();
+
+	/**
+	 * @return How long async events waited for their Triggers to start on the main thread, by the class of the event.
+	 */
+	public static Map<Class<? extends Event>, HandoffLatency> getHandoffLatencies() {
+		return Collections.unmodifiableMap(handoffLatencies);
+	}
+
+	/**
+	 * Statistics about how long the events of one class waited for the main thread.
+	 */
+	public static final class HandoffLatency {
+
+		private final LongAdder handoffs = new LongAdder();
+		private final LongAdder totalLatency = new LongAdder();
+		private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+
+		private HandoffLatency() {}
+
+		private void record(long latency) {
+			handoffs.increment();
+			totalLatency.add(latency);
+			maxLatency.accumulate(latency);
+		}
+
+		/**
+		 * @return How often events waited for the main thread.
+		 */
+		public long getHandoffs() {
+			return handoffs.sum();
+		}
+
+		/**
+		 * @return How long events waited for the main thread on average, in milliseconds.
+		 */
+		public double getAverageLatency() {
+			long handoffs = this.handoffs.sum();
+			return handoffs == 0 ? 0 : totalLatency.sum() / 1_000_000. / handoffs;
+		}
+
+		/**
+		 * @return The longest time an event waited for the main thread, in milliseconds.
+		 */
+		public double getMaxLatency() {
+			return maxLatency.get() / 1_000_000.;
+		}
+
+	}
+
+	/**
+	 * Executes the given Trigger with the given Event.
+	 * Must be called on whatever thread the Trigger is supposed to run on.
+	 */
+	private static void execute(Trigger trigger, Event event) {
+		logTriggerStart(trigger);
+		Object timing = SkriptTimings.start(trigger.getDebugLabel());
+		trigger.execute(event);
+		SkriptTimings.stop(timing);
+		logTriggerEnd(trigger);
+	}
+
 	private static long startEvent;
 
 	/**
@@ -256,7 +512,14 @@ public final class SkriptEventHandler {
 		if (handlerList == null)
 			return;
 
-		triggers.put(event, trigger);
+		deferTriggerChanges();
+		try {
+			synchronized (triggers) {
+				triggers.put(event, trigger);
+			}
+		} finally {
+			publishTriggerChanges();
+		}
 
 		EventPriority priority = trigger.getEvent().getEventPriority();
 
@@ -271,38 +534,57 @@ public final class SkriptEventHandler {
 	 * @param trigger The Trigger to unregister events for.
 	 */
 	public static void unregisterBukkitEvents(Trigger trigger) {
-		Iterator<Entry<Class<? extends Event>, Trigger>> entryIterator = triggers.entries().iterator();
-		entryLoop: while (entryIterator.hasNext()) {
-			Entry<Class<? extends Event>, Trigger> entry = entryIterator.next();
-			if (entry.getValue() != trigger)
-				continue;
-			Class<? extends Event> event = entry.getKey();
-
-			// Remove the trigger from the map
-			entryIterator.remove();
-
-			// check if we can unregister the listener
-			EventPriority priority = trigger.getEvent().getEventPriority();
-			for (Trigger eventTrigger : triggers.get(event)) {
-				if (eventTrigger.getEvent().getEventPriority() == priority)
-					continue entryLoop;
+		deferTriggerChanges();
+		try {
+			synchronized (triggers) {
+				Iterator<Entry<Class<? extends Event>, Trigger>> entryIterator = triggers.entries().iterator();
+				while (entryIterator.hasNext()) {
+					Entry<Class<? extends Event>, Trigger> entry = entryIterator.next();
+					if (entry.getValue() != trigger)
+						continue;
+
+					// Remove the trigger from the map, its listener is checked when publishing
+					entryIterator.remove();
+					unregisteredEvents.put(entry.getKey(), trigger.getEvent().getEventPriority());
+				}
 			}
+		} finally {
+			publishTriggerChanges();
+		}
+	}
 
-			// We can attempt to unregister this listener
-			HandlerList handlerList = getHandlerList(event);
-			if (handlerList == null)
-				continue;
-			Skript skript = Skript.getInstance();
-			for (RegisteredListener registeredListener : handlerList.getRegisteredListeners()) {
-				Listener listener = registeredListener.getListener();
-				if (
-					registeredListener.getPlugin() == skript
-					&& listener instanceof PriorityListener
-					&& ((PriorityListener) listener).priority == priority
-				) {
-					handlerList.unregister(listener);
+	/**
+	 * Reorders the given Triggers to run in the given order, without moving them relative to any other Triggers.
+	 * Used when some Triggers of a Script were reloaded, as reloaded Triggers are registered after all others.
+	 * @param order The Triggers in the order they should run in, e.g. the order of a Script's file.
+	 */
+	public static void reorderTriggers(List<Trigger> order) {
+		Map<Trigger, Integer> positions = new HashMap<>();
+		for (int i = 0; i < order.size(); i++)
+			positions.put(order.get(i), i);
+		deferTriggerChanges();
+		try {
+			synchronized (triggers) {
+				for (Class<? extends Event> event : triggers.keySet()) {
+					List<Trigger> eventTriggers = (List<Trigger>) triggers.get(event);
+					// the slots taken by the given triggers, which they are sorted into
+					List<Integer> slots = new ArrayList<>();
+					List<Trigger> ordered = new ArrayList<>();
+					for (int i = 0; i < eventTriggers.size(); i++) {
+						if (positions.containsKey(eventTriggers.get(i))) {
+							slots.add(i);
+							ordered.add(eventTriggers.get(i));
+						}
+					}
+					if (slots.size() < 2)
+						continue;
+					ordered.sort(Comparator.comparing(positions::get));
+					for (int i = 0; i < slots.size(); i++)
+						eventTriggers.set(slots.get(i), ordered.get(i));
 				}
 			}
+		} finally {
+			publishTriggerChanges();
 		}
 	}
 
@@ -21,6 +21,7 @@ package ch.njol.skript.command;
 import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.bukkitutil.CommandReloader;
 import ch.njol.skript.lang.Effect;
 import ch.njol.skript.lang.TriggerItem;
 import ch.njol.skript.lang.parser.ParserInstance;
@@ -53,6 +54,7 @@ import org.skriptlang.skript.lang.script.Script;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -81,6 +83,18 @@ public abstract class Commands {
 
 	private final static Map<String, ScriptCommand> commands = new HashMap<>();
 
+	/**
+	 * The commands as they will be once the staged changes are published, or null if changes aren't being staged.
+	 * @see #stageChanges(Collection)
+	 */
+	@Nullable
+	private static Map<String, ScriptCommand> stagedCommands = null;
+
+	/**
+	 * The commands that were registered while changes were staged, which are registered with Bukkit once they are published.
+	 */
+	private final static List<ScriptCommand> stagedRegistrations = new ArrayList<>();
+
 	@Nullable
 	private static SimpleCommandMap commandMap = null;
 	@Nullable
@@ -240,16 +254,30 @@ public abstract class Commands {
 	}
 
 	public static void registerCommand(ScriptCommand command) {
-		// Validate that there are no duplicates
-		ScriptCommand existingCommand = commands.get(command.getLabel());
-		if (existingCommand != null && existingCommand.getLabel().equals(command.getLabel())) {
-			Script script = existingCommand.getScript();
-			Skript.error("A command with the name /" + existingCommand.getName() + " is already defined"
-				+ (script != null ? (" in " + script.getConfig().getFileName()) : "")
-			);
-			return;
+		synchronized (stagedRegistrations) {
+			// Validate that there are no duplicates
+			ScriptCommand existingCommand = (stagedCommands != null ? stagedCommands : commands).get(command.getLabel());
+			if (existingCommand != null && existingCommand.getLabel().equals(command.getLabel())) {
+				Script script = existingCommand.getScript();
+				Skript.error("A command with the name /" + existingCommand.getName() + " is already defined"
+					+ (script != null ? (" in " + script.getConfig().getFileName()) : "")
+				);
+				return;
+			}
+
+			if (stagedCommands != null) {
+				stagedCommands.put(command.getLabel(), command);
+				stagedRegistrations.add(command);
+				return;
+			}
 		}
+		register(command);
+	}
 
+	/**
+	 * Registers the given command with Bukkit and makes it available to players.
+	 */
+	private static void register(ScriptCommand command) {
 		if (commandMap != null) {
 			assert cmKnownCommands != null;// && cmAliases != null;
 			command.register(commandMap, cmKnownCommands, cmAliases);
@@ -274,6 +302,12 @@ public abstract class Commands {
 	}
 
 	public static void unregisterCommand(ScriptCommand scriptCommand) {
+		synchronized (stagedRegistrations) {
+			if (stagedCommands != null)
+				stagedCommands.values().removeIf(command -> command == scriptCommand);
+			if (stagedRegistrations.remove(scriptCommand)) // it was never registered with Bukkit
+				return;
+		}
 		scriptCommand.unregisterHelp();
 		if (commandMap != null) {
 			assert cmKnownCommands != null;// && cmAliases != null;
@@ -282,6 +316,43 @@ public abstract class Commands {
 		commands.values().removeIf(command -> command == scriptCommand);
 	}
 
+	/**
+	 * Starts staging the changes to the registered commands, e.g. when scripts are being reloaded.
+	 * Until {@link #publishChanges()} is called, commands that are registered are only checked for duplicates,
+	 *  while the commands that were registered before stay available to players.
+	 * Can be called again while changes are already being staged, to replace further scripts.
+	 * @param replacedScripts The scripts that are being replaced.
+	 *  Their commands are ignored when checking for duplicates, so that they can be registered again.
+	 */
+	public static void stageChanges(Collection<Script> replacedScripts) {
+		synchronized (stagedRegistrations) {
+			if (stagedCommands == null)
+				stagedCommands = new HashMap<>(commands);
+			stagedCommands.values().removeIf(command -> replacedScripts.contains(command.getScript()));
+		}
+	}
+
+	/**
+	 * Registers the commands that were staged with Bukkit.
+	 * The commands of the replaced scripts must have been unregistered beforehand.
+	 * Does nothing if changes aren't being staged.
+	 * @see #stageChanges(Collection)
+	 */
+	public static void publishChanges() {
+		List<ScriptCommand> registrations;
+		synchronized (stagedRegistrations) {
+			if (stagedCommands == null)
+				return;
+			stagedCommands = null;
+			registrations = new ArrayList<>(stagedRegistrations);
+			stagedRegistrations.clear();
+		}
+		for (ScriptCommand command : registrations)
+			register(command);
+		if (!registrations.isEmpty() && CommandReloader.syncCommands(Bukkit.getServer()))
+			Skript.debug("Commands synced to clients");
+	}
+
 	private static boolean registeredListeners = false;
 
 	public static void registerListeners() {
@@ -36,6 +36,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Condition;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionList;
@@ -43,6 +44,7 @@ import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.UnparsedLiteral;
+import ch.njol.skript.lang.parser.ScriptOptimizer;
 import ch.njol.skript.lang.util.SimpleLiteral;
 import ch.njol.skript.log.ErrorQuality;
 import ch.njol.skript.log.RetainingLogHandler;
@@ -50,6 +52,7 @@ import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.registrations.Classes;
 
 import org.skriptlang.skript.lang.comparator.Comparators;
+import org.skriptlang.skript.lang.util.ClassPairInlineCache;
 import ch.njol.skript.util.Patterns;
 import ch.njol.skript.util.Utils;
 import ch.njol.util.Checker;
@@ -66,6 +69,7 @@ import org.skriptlang.skript.lang.util.Cyclical;
 		"time in the player's world is greater than 8:00",
 		"the creature is not an enderman or an ender dragon"})
 @Since("1.0")
+@AsyncSafe
 public class CondCompare extends Condition {
 	
 	private final static Patterns<Relation> patterns = new Patterns<>(new Object[][]{
@@ -112,6 +116,12 @@ public class CondCompare extends Condition {
 	@Nullable
 	@SuppressWarnings("rawtypes")
 	private Comparator comparator;
+
+	/**
+	 * Used to find comparators during runtime if the types to compare aren't known while parsing.
+	 */
+	@Nullable
+	private ClassPairInlineCache<Comparator<?, ?>> comparatorCache;
 	
 	@Override
 	public boolean init(final Expression<?>[] vars, final int matchedPattern, final Kleenean isDelayed, final ParseResult parser) {
@@ -210,8 +220,10 @@ public class CondCompare extends Condition {
 		}
 		Class<?> firstReturnType = first.getReturnType();
 		Class<?> secondReturnType = third == null ? second.getReturnType() : Utils.getSuperType(second.getReturnType(), third.getReturnType());
-		if (firstReturnType == Object.class || secondReturnType == Object.class)
+		if (firstReturnType == Object.class || secondReturnType == Object.class) {
+			comparatorCache = new ClassPairInlineCache<>(Comparators::getComparator);
 			return true;
+		}
 
 		comparator = Comparators.getComparator(firstReturnType, secondReturnType);
 
@@ -348,39 +360,73 @@ public class CondCompare extends Condition {
 		return first.check(e, (Checker<Object>) o1 ->
 			second.check(e, (Checker<Object>) o2 -> {
 				if (third == null)
-					return relation.isImpliedBy(comparator != null ? comparator.compare(o1, o2) : Comparators.compare(o1, o2));
+					return relation.isImpliedBy(compare(o1, o2));
 				return third.check(e, (Checker<Object>) o3 -> {
 					boolean isBetween;
-					if (comparator != null) {
-						if (o1 instanceof Cyclical<?> && o2 instanceof Cyclical<?> && o3 instanceof Cyclical<?>) {
-							if (Relation.GREATER_OR_EQUAL.isImpliedBy(comparator.compare(o2, o3)))
-								isBetween = Relation.GREATER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o2)) || Relation.SMALLER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o3));
-							else
-								isBetween = Relation.GREATER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o2)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o3));
-						} else {
-							isBetween =
-								(Relation.GREATER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o2)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o3)))
-								// Check OPPOSITE (switching o2 / o3)
-								|| (Relation.GREATER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o3)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(comparator.compare(o1, o2)));
-						}
+					if (o1 instanceof Cyclical<?> && o2 instanceof Cyclical<?> && o3 instanceof Cyclical<?>) {
+						if (Relation.GREATER_OR_EQUAL.isImpliedBy(compare(o2, o3)))
+							isBetween = Relation.GREATER_OR_EQUAL.isImpliedBy(compare(o1, o2)) || Relation.SMALLER_OR_EQUAL.isImpliedBy(compare(o1, o3));
+						else
+							isBetween = Relation.GREATER_OR_EQUAL.isImpliedBy(compare(o1, o2)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(compare(o1, o3));
 					} else {
-						if (o1 instanceof Cyclical<?> && o2 instanceof Cyclical<?> && o3 instanceof Cyclical<?>) {
-							if (Relation.GREATER_OR_EQUAL.isImpliedBy(Comparators.compare(o2, o3)))
-								isBetween = Relation.GREATER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o2)) || Relation.SMALLER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o3));
-							else
-								isBetween = Relation.GREATER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o2)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o3));
-						} else {
-							isBetween =
-									(Relation.GREATER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o2)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o3)))
-									// Check OPPOSITE (switching o2 / o3)
-									|| (Relation.GREATER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o3)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(Comparators.compare(o1, o2)));
-						}
+						isBetween =
+							(Relation.GREATER_OR_EQUAL.isImpliedBy(compare(o1, o2)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(compare(o1, o3)))
+							// Check OPPOSITE (switching o2 / o3)
+							|| (Relation.GREATER_OR_EQUAL.isImpliedBy(compare(o1, o3)) && Relation.SMALLER_OR_EQUAL.isImpliedBy(compare(o1, o2)));
 					}
 					return relation == Relation.NOT_EQUAL ^ isBetween;
 				});
 			}
 		), isNegated());
 	}
+
+	public Expression<?> getFirst() {
+		return first;
+	}
+
+	public Expression<?> getSecond() {
+		return second;
+	}
+
+	@Nullable
+	public Expression<?> getThird() {
+		return third;
+	}
+
+	public Relation getRelation() {
+		return relation;
+	}
+
+	@Override
+	public boolean isConstant() {
+		// texts are compared according to the 'case sensitive' option, which may change when the config is reloaded
+		if (mayBeText(first) || mayBeText(second) || third != null && mayBeText(third))
+			return false;
+		return ScriptOptimizer.isConstant(first) && ScriptOptimizer.isConstant(second) && (third == null || ScriptOptimizer.isConstant(third));
+	}
+
+	private static boolean mayBeText(Expression<?> expression) {
+		return expression.getReturnType().isAssignableFrom(String.class);
+	}
+
+	/**
+	 * Compares two objects using the comparator found while parsing,
+	 *  or the comparator for the objects' types if the types weren't known while parsing.
+	 * This behaves like {@link Comparators#compare(Object, Object)}.
+	 */
+	@SuppressWarnings("unchecked")
+	private Relation compare(@Nullable Object o1, @Nullable Object o2) {
+		if (comparator != null)
+			return comparator.compare(o1, o2);
+		if (o1 == null || o2 == null)
+			return Relation.NOT_EQUAL;
+		if (o1 == o2)
+			return Relation.EQUAL;
+		ClassPairInlineCache<Comparator<?, ?>> comparatorCache = this.comparatorCache;
+		assert comparatorCache != null;
+		Comparator<Object, Object> runtimeComparator = (Comparator<Object, Object>) comparatorCache.get(o1.getClass(), o2.getClass());
+		return runtimeComparator != null ? runtimeComparator.compare(o1, o2) : Relation.NOT_EQUAL;
+	}
 	
 	@Override
 	public String toString(final @Nullable Event e, final boolean debug) {
@@ -391,7 +437,7 @@ public class CondCompare extends Condition {
 		else
 			s = first.toString(e, debug) + " is " + (isNegated() ? "not " : "") + "between " + second.toString(e, debug) + " and " + third.toString(e, debug);
 		if (debug)
-			s += " (comparator: " + comparator + ")";
+			s += " (comparator: " + (comparator != null ? comparator : comparatorCache) + ")";
 		return s;
 	}
 	
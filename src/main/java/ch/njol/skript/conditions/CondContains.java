@@ -26,6 +26,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Condition;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
@@ -48,6 +49,7 @@ import java.util.Objects;
 		"player has 4 flint and 2 iron ingots",
 		"{list::*} contains 5"})
 @Since("1.0")
+@AsyncSafe
 public class CondContains extends Condition {
 
 	static {
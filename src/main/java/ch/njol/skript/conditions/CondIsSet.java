@@ -26,6 +26,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Condition;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionList;
@@ -42,6 +43,7 @@ import ch.njol.util.Kleenean;
 		"	projectile exists",
 		"	broadcast \"%attacker% used a %projectile% to attack %victim%!\""})
 @Since("1.2")
+@AsyncSafe
 public class CondIsSet extends Condition {
 	static {
 		Skript.registerCondition(CondIsSet.class,
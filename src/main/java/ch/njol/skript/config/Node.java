@@ -19,12 +19,9 @@
 package ch.njol.skript.config;
 
 import java.io.PrintWriter;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.Nullable;
 
-import ch.njol.skript.Skript;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.util.NonNullPair;
 import ch.njol.util.StringUtils;
@@ -115,9 +112,6 @@ public abstract class Node {
 		newParent.add(this);
 	}
 	
-	@SuppressWarnings("null")
-	private final static Pattern linePattern = Pattern.compile("^((?:[^#]|##)*)(\\s*#(?!#).*)$");
-	
 	/**
 	 * Splits a line into value and comment.
 	 * <p>
@@ -128,45 +122,36 @@ public abstract class Node {
 	 * @return A pair (value, comment).
 	 */
 	public static NonNullPair<String, String> splitLine(final String line) {
-		if (line.trim().startsWith("#"))
-			return new NonNullPair<>("", line.substring(line.indexOf('#')));
-		final Matcher m = linePattern.matcher(line);
-		boolean matches = false;
-		try {
-			matches = line.contains("#") && m.matches();
-		} catch (StackOverflowError e) { // Probably a very long line
-			handleNodeStackOverflow(e, line);
-		}
-		if (matches)
-			return new NonNullPair<>("" + m.group(1).replace("##", "#"), "" + m.group(2));
-		return new NonNullPair<>("" + line.replace("##", "#"), "");
+		final int length = line.length();
+		int start = 0;
+		while (start < length && line.charAt(start) <= ' ')
+			start++;
+		if (start < length && line.charAt(start) == '#')
+			return new NonNullPair<>("", "" + line.substring(start));
+		final int comment = findComment(line);
+		if (comment == -1)
+			return new NonNullPair<>("" + line.replace("##", "#"), "");
+		return new NonNullPair<>("" + line.substring(0, comment).replace("##", "#"), "" + line.substring(comment));
 	}
 	
-	static void handleNodeStackOverflow(StackOverflowError e, String line) {
-		Node n = SkriptLogger.getNode();
-		SkriptLogger.setNode(null); // Avoid duplicating the which node error occurred in paranthesis on every error message
-		
-		Skript.error("There was a StackOverFlowError occurred when loading a node. This maybe from your scripts, aliases or Skript configuration.");
-		Skript.error("Please make your script lines shorter! Do NOT report this to SkriptLang unless it occurs with a short script line or built-in aliases!");
-		
-		Skript.error("");
-		Skript.error("Updating your Java and/or using respective 64-bit versions for your operating system may also help and is always a good practice.");
-		Skript.error("If it is still not fixed, try moderately increasing the thread stack size (-Xss flag) in your startup script.");
-		Skript.error("");
-		Skript.error("Using a different Java Virtual Machine (JVM) like OpenJ9 or GraalVM may also help; though be aware that not all plugins may support them.");
-		Skript.error("");
-		
-		Skript.error("Line that caused the issue:");
-		
-		// Print the line caused the issue for diagnosing (will be very long most probably), in case of someone pasting this in an issue and not providing the code.
-		Skript.error(line);
-		
-		// If testing (assertions enabled) - print the whole stack trace.
-		if (Skript.testing()) {
-			Skript.exception(e);
+	/**
+	 * Finds the '#' that starts the comment of a line, i.e. the last '#' of the first run of an odd number of '#'s, as all other '#'s are escaped as ##.
+	 * 
+	 * @param line
+	 * @return The index of the comment's leading '#', or -1 if the line doesn't have a comment.
+	 */
+	static int findComment(final String line) {
+		final int length = line.length();
+		for (int i = 0; i < length; i++) {
+			if (line.charAt(i) != '#')
+				continue;
+			if (i + 1 < length && line.charAt(i + 1) == '#') {
+				i++; // escaped ##
+			} else {
+				return i;
+			}
 		}
-		
-		SkriptLogger.setNode(n); // Revert the node back
+		return -1;
 	}
 	
 	@Nullable
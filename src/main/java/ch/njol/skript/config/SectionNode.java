@@ -20,7 +20,6 @@ package ch.njol.skript.config;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.regex.Pattern;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -268,7 +267,45 @@ public class SectionNode extends Node implements Iterable<Node> {
 		return "'" + s.replace("\t", "->").replace(' ', '_').replaceAll("\\s", "?") + "' [-> = tab, _ = space, ? = other whitespace]";
 	}
 	
-	private static final Pattern fullLinePattern = Pattern.compile("([^#]|##)*#-#(\\s.*)?");
+	/**
+	 * Whether the given character is whitespace as defined by the {@code \s} regex character class.
+	 */
+	private static boolean isWhitespace(final char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+	
+	/**
+	 * @return The index of the first non-whitespace character of the given line, or the line's length if it's blank.
+	 */
+	private static int getIndentationLength(final String line) {
+		final int length = line.length();
+		int i = 0;
+		while (i < length && isWhitespace(line.charAt(i)))
+			i++;
+		return i;
+	}
+	
+	/**
+	 * @return Whether the first <tt>length</tt> characters of the given line consist only of whole levels of this config's indentation.
+	 */
+	private boolean isIndentation(final String line, final int length) {
+		final String indentation = config.getIndentation();
+		final int step = indentation.length();
+		if (length % step != 0)
+			return false;
+		for (int i = 0; i < length; i += step) {
+			if (!line.regionMatches(i, indentation, 0, step))
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * A comment starting with '#-#' (followed by whitespace or the end of the line) prevents a line ending in a colon from starting a section.
+	 */
+	private static boolean isNoSectionComment(final String comment) {
+		return comment.startsWith("#-#") && (comment.length() == 3 || isWhitespace(comment.charAt(3)));
+	}
 	
 	private final SectionNode load_i(final ConfigReader r) throws IOException {
 		boolean indentationSet = false;
@@ -281,9 +318,10 @@ public class SectionNode extends Node implements Iterable<Node> {
 			final String comment = line.getSecond();
 			
 			final SectionNode parent = this.parent;
-			if (!indentationSet && parent != null && parent.parent == null && !value.isEmpty() && !value.matches("\\s*") && !value.matches("\\S.*")) {
-				final String s = value.replaceFirst("\\S.*$", "");
-				assert !s.isEmpty() : fullLine;
+			final int indentation = getIndentationLength(value);
+			final boolean blank = indentation == value.length();
+			if (!indentationSet && parent != null && parent.parent == null && !blank && indentation != 0) {
+				final String s = "" + value.substring(0, indentation);
 				if (s.matches(" +") || s.matches("\t+")) {
 					config.setIndentation(s);
 					indentationSet = true;
@@ -293,10 +331,11 @@ public class SectionNode extends Node implements Iterable<Node> {
 					continue;
 				}
 			}
-			if (!value.matches("\\s*") && !value.matches("^(" + config.getIndentation() + "){" + config.level + "}\\S.*")) {
-				if (value.matches("^(" + config.getIndentation() + "){" + config.level + "}\\s.*") || !value.matches("^(" + config.getIndentation() + ")*\\S.*")) {
+			final int expected = config.level * config.getIndentation().length();
+			if (!blank && (indentation != expected || !isIndentation(value, indentation))) {
+				if (indentation > expected && isIndentation(value, expected) || !isIndentation(value, indentation)) {
 					nodes.add(new InvalidNode(value, comment, this, r.getLineNum()));
-					final String s = "" + value.replaceFirst("\\S.*$", "");
+					final String s = "" + value.substring(0, indentation);
 					Skript.error("indentation error: expected " + config.level * config.getIndentation().length() + " " + config.getIndentationName() + (config.level * config.getIndentation().length() == 1 ? "" : "s") + ", but found " + readableWhitespace(s));
 					continue;
 				} else {
@@ -344,13 +383,7 @@ public class SectionNode extends Node implements Iterable<Node> {
 					|| value.indexOf(config.separator) == -1
 					|| config.separator.endsWith(":") && value.indexOf(config.separator) == value.length() - config.separator.length()
 					)) {
-				boolean matches = false;
-				try {
-					matches = fullLine.contains("#") && fullLinePattern.matcher(fullLine).matches();
-				} catch (StackOverflowError e) { // Probably a very long line
-					Node.handleNodeStackOverflow(e, fullLine);
-				}
-				if (!matches) {
+				if (!isNoSectionComment(comment)) {
 					nodes.add(SectionNode.load("" + value.substring(0, value.length() - 1), comment, this, r));
 					continue;
 				}
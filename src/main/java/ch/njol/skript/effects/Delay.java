@@ -28,19 +28,17 @@ import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerContext;
 import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.util.ExpressionMemo;
 import ch.njol.skript.timings.SkriptTimings;
 import ch.njol.skript.util.Timespan;
+import ch.njol.skript.util.TimingWheel;
 import ch.njol.skript.variables.Variables;
 import ch.njol.util.Kleenean;
-import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
-import java.util.Collections;
-import java.util.Set;
-import java.util.WeakHashMap;
-
 @Name("Delay")
 @Description("Delays the script's execution by a given timespan. Please note that delays are not persistent, e.g. trying to create a tempban script with <code>ban player → wait 7 days → unban player</code> will not work if you restart your server anytime within these 7 days. You also have to be careful even when using small delays!")
 @Examples({
@@ -78,41 +76,57 @@ public class Delay extends Effect {
 	@Nullable
 	protected TriggerItem walk(Event event) {
 		debug(event, true);
-		long start = Skript.debug() ? System.nanoTime() : 0;
 		TriggerItem next = getNext();
 		if (next != null && Skript.getInstance().isEnabled()) { // See https://github.com/SkriptLang/Skript/issues/3702
-			addDelayedEvent(event);
-
 			Timespan duration = this.duration.getSingle(event);
-			if (duration == null)
+			if (duration == null) {
+				// the rest of the trigger won't run, but the event has still been delayed as far as other code is concerned
+				addDelayedEvent(event);
 				return null;
-			
-			// Back up local variables
-			Object localVars = Variables.removeLocals(event);
-			
-			Bukkit.getScheduler().scheduleSyncDelayedTask(Skript.getInstance(), () -> {
-				Skript.debug(getIndentation() + "... continuing after " + (System.nanoTime() - start) / 1_000_000_000. + "s");
-
-				// Re-set local variables
-				if (localVars != null)
-					Variables.setLocalVariables(event, localVars);
-
-				Object timing = null; // Timings reference must be kept so that it can be stopped after TriggerItem execution
-				if (SkriptTimings.enabled()) { // getTrigger call is not free, do it only if we must
-					Trigger trigger = getTrigger();
-					if (trigger != null)
-						timing = SkriptTimings.start(trigger.getDebugLabel());
-				}
-
-				TriggerItem.walk(next, event);
-				Variables.removeLocals(event); // Clean up local vars, we may be exiting now
-
-				SkriptTimings.stop(timing); // Stop timing if it was even started
-			}, Math.max(duration.getTicks(), 1)); // Minimum delay is one tick, less than it is useless!
+			}
+
+			// marks the event as delayed as well
+			continueLater(next, event, Math.max(duration.getTicks(), 1)); // Minimum delay is one tick, less than it is useless!
 		}
 		return null;
 	}
 
+	/**
+	 * Suspends the execution running with the given event, and continues it with the given item after the given number of ticks.
+	 * The caller should stop walking afterwards, i.e. return null from {@link TriggerItem#walk(Event)}.
+	 * @param next The item to continue the execution with.
+	 * @param event The event the execution is running with.
+	 * @param ticks The number of ticks to wait, at least 1.
+	 */
+	public static void continueLater(TriggerItem next, Event event, long ticks) {
+		long start = Skript.debug() ? System.nanoTime() : 0;
+		addDelayedEvent(event);
+
+		// Back up local variables
+		Object localVars = Variables.removeLocals(event);
+
+		CONTINUATIONS.start(Skript.getInstance());
+		CONTINUATIONS.schedule(() -> {
+			Skript.debug(next.getIndentation() + "... continuing after " + (System.nanoTime() - start) / 1_000_000_000. + "s");
+
+			// Re-set local variables
+			if (localVars != null)
+				Variables.setLocalVariables(event, localVars);
+
+			Object timing = null; // Timings reference must be kept so that it can be stopped after TriggerItem execution
+			if (SkriptTimings.enabled()) { // getTrigger call is not free, do it only if we must
+				Trigger trigger = next.getTrigger();
+				if (trigger != null)
+					timing = SkriptTimings.start(trigger.getDebugLabel());
+			}
+
+			TriggerItem.walk(next, event);
+			Variables.removeLocals(event); // Clean up local vars, we may be exiting now
+
+			SkriptTimings.stop(timing); // Stop timing if it was even started
+		}, ticks);
+	}
+
 	@Override
 	protected void execute(Event event) {
 		throw new UnsupportedOperationException();
@@ -123,8 +137,26 @@ public class Delay extends Effect {
 		return "wait for " + duration.toString(event, debug) + (event == null ? "" : "...");
 	}
 
-	private static final Set<Event> DELAYED =
-		Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+	/**
+	 * The continuations of delayed triggers, which are all run by a single repeating task.
+	 */
+	private static final TimingWheel CONTINUATIONS = new TimingWheel();
+
+	/**
+	 * Starts the task running the continuations of delayed triggers.
+	 * This is done when Skript is enabled, so that the task runs before the tasks of scripts in each tick,
+	 *  and a trigger waiting one tick doesn't continue in the same tick if it was started by such a task.
+	 */
+	public static void startContinuations() {
+		CONTINUATIONS.start(Skript.getInstance());
+	}
+
+	/**
+	 * @return How many delayed triggers are waiting to continue.
+	 */
+	public static int getPendingContinuations() {
+		return CONTINUATIONS.getPending();
+	}
 
 	/**
 	 * The main method for checking if the execution of {@link TriggerItem}s has been delayed.
@@ -132,7 +164,8 @@ public class Delay extends Effect {
 	 * @return Whether {@link TriggerItem} execution has been delayed.
 	 */
 	public static boolean isDelayed(Event event) {
-		return DELAYED.contains(event);
+		TriggerContext context = TriggerContext.find(event);
+		return context != null && context.isDelayed();
 	}
 
 	/**
@@ -140,7 +173,9 @@ public class Delay extends Effect {
 	 * @param event The event to mark as delayed.
 	 */
 	public static void addDelayedEvent(Event event) {
-		DELAYED.add(event);
+		TriggerContext.get(event).setDelayed();
+		// remembered values may have changed once execution continues
+		ExpressionMemo.invalidate(event);
 	}
 
 }
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.logging.Level;
 
 import ch.njol.skript.expressions.ExprParse;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Effect;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionList;
@@ -77,6 +78,7 @@ import ch.njol.util.Kleenean;
 		"reset walk speed of player",
 		"reset chunk at the targeted block"})
 @Since("1.0 (set, add, remove, delete), 2.0 (remove all)")
+@AsyncSafe
 public class EffChange extends Effect {
 	private static Patterns<ChangeMode> patterns = new Patterns<>(new Object[][] {
 			{"(add|give) %objects% to %~objects%", ChangeMode.ADD},
@@ -150,6 +152,13 @@ public class EffChange extends Effect {
 				changed = exprs[0];
 		}
 		
+		// anything but variables (e.g. event values or the message of a chat event) may only be changed on the main thread
+		if (getParser().isAsync() && !isVariable(changed)) {
+			Skript.error("Only variables can be changed in async events, as changing '" + changed + "' isn't known to be safe off the main thread."
+				+ " Change it in a 'sync' section instead.", ErrorQuality.SEMANTIC_ERROR);
+			return false;
+		}
+		
 		CountingLogHandler h = new CountingLogHandler(Level.SEVERE).start();
 		Class<?>[] rs;
 		String what;
@@ -279,6 +288,20 @@ public class EffChange extends Effect {
 		return true;
 	}
 	
+	/**
+	 * @return Whether the given expression is a variable or a list of variables.
+	 */
+	private static boolean isVariable(Expression<?> expression) {
+		if (expression instanceof ExpressionList) {
+			for (Expression<?> child : ((ExpressionList<?>) expression).getExpressions()) {
+				if (!isVariable(child))
+					return false;
+			}
+			return true;
+		}
+		return expression instanceof Variable;
+	}
+	
 	@Override
 	protected void execute(Event e) {
 		Object[] delta = changer == null ? null : changer.getArray(e);
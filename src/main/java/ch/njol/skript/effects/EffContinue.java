@@ -23,12 +23,15 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Effect;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.LoopSection;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.TriggerSection;
+import ch.njol.skript.sections.SecSync;
 import ch.njol.util.Kleenean;
 import ch.njol.util.StringUtils;
 import org.bukkit.event.Event;
@@ -56,6 +59,7 @@ import java.util.List;
 		"\tbroadcast \"Game starting in %{_counter}% second(s)\"",
 })
 @Since("2.2-dev37, 2.7 (while loops), 2.8.0 (outer loops)")
+@AsyncSafe
 public class EffContinue extends Effect {
 
 	static {
@@ -94,6 +98,14 @@ public class EffContinue extends Effect {
 
 		loop = currentLoops.get(level - 1);
 		innerLoops = currentLoops.subList(level, size);
+
+		List<TriggerSection> currentSections = getParser().getCurrentSections();
+		for (int i = currentSections.indexOf(loop) + 1; i < currentSections.size(); i++) {
+			if (currentSections.get(i) instanceof SecSync) {
+				Skript.error("Can't continue a loop outside of a sync section from within it, as the loop would continue on the main thread");
+				return false;
+			}
+		}
 		return true;
 	}
 
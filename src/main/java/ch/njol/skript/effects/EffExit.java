@@ -23,6 +23,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Effect;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.LoopSection;
@@ -32,6 +33,7 @@ import ch.njol.skript.lang.TriggerSection;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.ErrorQuality;
 import ch.njol.skript.sections.SecConditional;
+import ch.njol.skript.sections.SecSync;
 import ch.njol.util.Kleenean;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -50,6 +52,7 @@ import java.util.List;
 		"\tset loop-block to water"
 })
 @Since("<i>unknown</i> (before 2.1)")
+@AsyncSafe
 public class EffExit extends Effect { // TODO [code style] warn user about code after a stop effect
 
 	static {
@@ -96,9 +99,30 @@ public class EffExit extends Effect { // TODO [code style] warn user about code
 				}
 				break;
 		}
+		// stopping the whole trigger is fine, the async trigger stops as well
+		if (matchedPattern != 0 && exitsSyncSection(type, breakLevels)) {
+			Skript.error("can't stop " + names[type] + " outside of a sync section from within it, as the code after them would run on the main thread", ErrorQuality.SEMANTIC_ERROR);
+			return false;
+		}
 		return true;
 	}
 	
+	/**
+	 * @return Whether stopping the given number of sections of the given type leaves a {@link SecSync sync section}
+	 * to continue after a section outside of it. Stopping the sync section itself is fine.
+	 */
+	private static boolean exitsSyncSection(int type, int breakLevels) {
+		List<TriggerSection> currentSections = ParserInstance.get().getCurrentSections();
+		for (int i = currentSections.size() - 1; i >= 0 && breakLevels > 0; i--) {
+			TriggerSection section = currentSections.get(i);
+			if (type == EVERYTHING || type == CONDITIONALS && section instanceof SecConditional || type == LOOPS && section instanceof LoopSection)
+				breakLevels--;
+			if (section instanceof SecSync && breakLevels > 0)
+				return true;
+		}
+		return false;
+	}
+	
 	private static int numLevels(int type) {
 		List<TriggerSection> currentSections = ParserInstance.get().getCurrentSections();
 		if (type == EVERYTHING)
@@ -24,6 +24,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Effect;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.LoopSection;
@@ -49,6 +50,7 @@ import org.eclipse.jdt.annotation.Nullable;
 		"\treturn {_i} / 2"
 })
 @Since("2.2, 2.8.0 (returns aliases)")
+@AsyncSafe
 public class EffReturn extends Effect {
 	
 	static {
@@ -104,13 +106,20 @@ public class EffReturn extends Effect {
 		return true;
 	}
 	
+	/**
+	 * @return The expression whose values are returned, already converted to the function's return type.
+	 */
+	public Expression<?> getReturnedExpression() {
+		return value;
+	}
+	
 	@Override
 	@Nullable
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	protected TriggerItem walk(Event event) {
 		debug(event, false);
 		if (event instanceof FunctionEvent) {
-			((ScriptFunction) function).setReturnValue(value.getArray(event));
+			((FunctionEvent<?>) event).setReturnValue(value.getArray(event));
 		} else {
 			assert false : event;
 		}
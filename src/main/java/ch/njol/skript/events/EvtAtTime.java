@@ -25,6 +25,7 @@ import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.PeriodicalScheduler;
 import ch.njol.skript.util.Time;
 import ch.njol.util.Math2;
 import org.bukkit.Bukkit;
@@ -101,9 +102,9 @@ public class EvtAtTime extends SkriptEvent implements Comparable<EvtAtTime> {
 				iterator.remove();
 		}
 
-		if (taskID != -1 && TRIGGERS.isEmpty()) { // Unregister Bukkit listener if possible
-			Bukkit.getScheduler().cancelTask(taskID);
-			taskID = -1;
+		if (task != null && TRIGGERS.isEmpty()) { // Stop checking if possible
+			task.cancel();
+			task = null;
 		}
 	}
 
@@ -117,14 +118,15 @@ public class EvtAtTime extends SkriptEvent implements Comparable<EvtAtTime> {
 		return false;
 	}
 
-	private static int taskID = -1;
+	@Nullable
+	private static PeriodicalScheduler.Entry task;
 	
 	private static void registerListener() {
-		if (taskID != -1)
+		if (task != null)
 			return;
 		// For each world:
 		// check each instance in order until triggerTime > (worldTime + period)
-		taskID = Bukkit.getScheduler().scheduleSyncRepeatingTask(Skript.getInstance(), () -> {
+		task = PeriodicalScheduler.schedule(() -> {
 			for (Entry<World, EvtAtInfo> entry : TRIGGERS.entrySet()) {
 				EvtAtInfo info = entry.getValue();
 				int worldTime = (int) entry.getKey().getTime();
@@ -169,7 +171,7 @@ public class EvtAtTime extends SkriptEvent implements Comparable<EvtAtTime> {
 				}
 				info.lastCheckedTime = worldTime;
 			}
-		}, 0, CHECK_PERIOD);
+		}, CHECK_PERIOD, 1);
 	}
 	
 	@Override
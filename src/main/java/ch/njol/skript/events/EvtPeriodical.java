@@ -25,8 +25,8 @@ import ch.njol.skript.events.bukkit.ScheduledNoWorldEvent;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.util.PeriodicalScheduler;
 import ch.njol.skript.util.Timespan;
-import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -57,7 +57,7 @@ public class EvtPeriodical extends SkriptEvent {
 	private Timespan period;
 
 	@SuppressWarnings("NotNullFieldNotInitialized")
-	private int[] taskIDs;
+	private PeriodicalScheduler.Entry[] tasks;
 
 	private World @Nullable [] worlds;
 
@@ -75,18 +75,15 @@ public class EvtPeriodical extends SkriptEvent {
 		long ticks = period.getTicks();
 
 		if (worlds == null) {
-			taskIDs = new int[]{
-				Bukkit.getScheduler().scheduleSyncRepeatingTask(
-					Skript.getInstance(), () -> execute(null), ticks, ticks
-				)
+			tasks = new PeriodicalScheduler.Entry[]{
+				PeriodicalScheduler.scheduleSmeared(() -> execute(null), ticks)
 			};
 		} else {
-			taskIDs = new int[worlds.length];
+			// these follow the time of each world, so they can't be moved
+			tasks = new PeriodicalScheduler.Entry[worlds.length];
 			for (int i = 0; i < worlds.length; i++) {
 				World world = worlds[i];
-				taskIDs[i] = Bukkit.getScheduler().scheduleSyncRepeatingTask(
-					Skript.getInstance(), () -> execute(world), ticks - (world.getFullTime() % ticks), ticks
-				);
+				tasks[i] = PeriodicalScheduler.schedule(() -> execute(world), ticks, ticks - (world.getFullTime() % ticks));
 			}
 		}
 
@@ -95,8 +92,8 @@ public class EvtPeriodical extends SkriptEvent {
 
 	@Override
 	public void unload() {
-		for (int taskID : taskIDs)
-			Bukkit.getScheduler().cancelTask(taskID);
+		for (PeriodicalScheduler.Entry task : tasks)
+			task.cancel();
 	}
 
 	@Override
@@ -23,6 +23,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.Literal;
@@ -48,6 +49,7 @@ import java.util.Iterator;
 })
 @Examples("broadcast the first 3 elements of {top players::*}")
 @Since("2.0, 2.7 (relative to last element), 2.8.0 (range of elements)")
+@AsyncSafe
 public class ExprElement<T> extends SimpleExpression<T> {
 
 	private static final Patterns<ElementType[]> PATTERNS = new Patterns<>(new Object[][]{
@@ -23,6 +23,7 @@ import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.doc.NoDoc;
 import ch.njol.skript.expressions.base.EventValueExpression;
 import ch.njol.skript.expressions.base.WrapperExpression;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.Literal;
@@ -42,6 +43,7 @@ import org.eclipse.jdt.annotation.Nullable;
  * @author Peter Güttinger
  */
 @NoDoc
+@AsyncSafe
 public class ExprEventExpression extends WrapperExpression<Object> {
 
 	static {
@@ -23,6 +23,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
@@ -55,6 +56,7 @@ import java.util.Map.Entry;
 		"broadcast \"%{_descending-indices::*}%\" #result is fourth, third, second, first"
 })
 @Since("2.4 (indices), 2.6.1 (sorting)")
+@AsyncSafe
 public class ExprIndices extends SimpleExpression<String> {
 
 	static {
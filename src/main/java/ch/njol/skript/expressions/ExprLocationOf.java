@@ -31,6 +31,7 @@ import ch.njol.skript.expressions.base.WrapperExpression;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.util.MemoizableExpression;
 import ch.njol.util.Kleenean;
 
 /**
@@ -43,7 +44,7 @@ import ch.njol.util.Kleenean;
 @Examples({"set {home::%uuid of player%} to the location of the player",
 		"message \"You home was set to %player's location% in %player's world%.\""})
 @Since("")
-public class ExprLocationOf extends WrapperExpression<Location> {
+public class ExprLocationOf extends WrapperExpression<Location> implements MemoizableExpression<Location> {
 	static {
 		Skript.registerExpression(ExprLocationOf.class, Location.class, ExpressionType.PROPERTY, "(location|position) of %location%", "%location%'[s] (location|position)");
 	}
@@ -55,6 +56,12 @@ public class ExprLocationOf extends WrapperExpression<Location> {
 		return true;
 	}
 	
+	@Override
+	@Nullable
+	public Object getMemoState() {
+		return null;
+	}
+
 	@Override
 	public String toString(final @Nullable Event e, final boolean debug) {
 		return "the location of " + getExpr().toString(e, debug);
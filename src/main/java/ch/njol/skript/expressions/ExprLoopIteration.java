@@ -23,6 +23,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.Literal;
@@ -48,6 +49,7 @@ import org.eclipse.jdt.annotation.Nullable;
 	"\t\tbroadcast \"##%loop-iteration% %loop-index% has $%loop-value%\"",
 })
 @Since("2.8.0")
+@AsyncSafe
 public class ExprLoopIteration extends SimpleExpression<Long> {
 
 	static {
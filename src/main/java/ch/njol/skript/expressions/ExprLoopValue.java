@@ -25,6 +25,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
@@ -65,6 +66,7 @@ import java.util.regex.Pattern;
 		"\tsend \"##%loop-iteration% %loop-index% has $%loop-value%\"",
 })
 @Since("1.0, 2.8.0 (loop-counter)")
+@AsyncSafe
 public class ExprLoopValue extends SimpleExpression<Object> {
 	static {
 		Skript.registerExpression(ExprLoopValue.class, Object.class, ExpressionType.SIMPLE, "[the] loop-<.+>");
@@ -33,6 +33,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionList;
 import ch.njol.skript.lang.ExpressionType;
@@ -50,6 +51,7 @@ import ch.njol.util.coll.CollectionUtils;
 	"give a random item out of all items to the player"
 })
 @Since("1.4.9")
+@AsyncSafe
 public class ExprRandom extends SimpleExpression<Object> {
 
 	static {
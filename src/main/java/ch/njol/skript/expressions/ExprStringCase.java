@@ -27,6 +27,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
@@ -50,6 +51,7 @@ import ch.njol.util.Kleenean;
 	"\"What is your name?\" in lower kebab case # what-is-your-name?",
 	"\"What is your name?\" in upper kebab case # WHAT-IS-YOUR-NAME?"})
 @Since("2.2-dev16 (lowercase and uppercase), 2.5 (advanced cases)")
+@AsyncSafe
 public class ExprStringCase extends SimpleExpression<String> {
 	
 	static {
@@ -30,6 +30,7 @@ import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
@@ -49,6 +50,7 @@ import ch.njol.util.Kleenean;
 		"set {_characters::*} to characters at 1, 2 and 7 in player's display name",
 		"send the last character of all players' names"})
 @Since("2.1, 2.5.2 (character at, multiple strings support)")
+@AsyncSafe
 public class ExprSubstring extends SimpleExpression<String> {
 	static {
 		Skript.registerExpression(ExprSubstring.class, String.class, ExpressionType.COMBINED,
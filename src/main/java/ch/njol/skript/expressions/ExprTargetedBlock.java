@@ -28,6 +28,7 @@ import ch.njol.skript.expressions.base.PropertyExpression;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.util.MemoizableExpression;
 import ch.njol.util.Kleenean;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -42,7 +43,7 @@ import org.eclipse.jdt.annotation.Nullable;
 		"\ttrigger:",
 		"\t\tset targeted block to argument"})
 @Since("1.0")
-public class ExprTargetedBlock extends PropertyExpression<Player, Block> {
+public class ExprTargetedBlock extends PropertyExpression<Player, Block> implements MemoizableExpression<Block> {
 
 	static {
 		Skript.registerExpression(ExprTargetedBlock.class, Block.class, ExpressionType.COMBINED,
@@ -71,6 +72,12 @@ public class ExprTargetedBlock extends PropertyExpression<Player, Block> {
 		});
 	}
 
+	@Override
+	@Nullable
+	public Object getMemoState() {
+		return null; // the 'actual' patterns target the same block
+	}
+
 	@Override
 	public Class<Block> getReturnType() {
 		return Block.class;
@@ -24,6 +24,7 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.Literal;
@@ -47,6 +48,7 @@ import java.util.stream.LongStream;
 	"\twait 1 second"
 })
 @Since("1.4.6")
+@AsyncSafe
 public class ExprTimes extends SimpleExpression<Long> {
 
 	static {
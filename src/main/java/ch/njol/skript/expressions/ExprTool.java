@@ -40,6 +40,7 @@ import ch.njol.skript.expressions.base.PropertyExpression;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.util.MemoizableExpression;
 import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.util.Getter;
 import ch.njol.skript.util.slot.EquipmentSlot;
@@ -57,7 +58,7 @@ import ch.njol.util.Kleenean;
 	"set tool of all players to a diamond sword",
 	"set offhand tool of target entity to a bow"})
 @Since("1.0")
-public class ExprTool extends PropertyExpression<LivingEntity, Slot> {
+public class ExprTool extends PropertyExpression<LivingEntity, Slot> implements MemoizableExpression<Slot> {
 	static {
 		Skript.registerExpression(ExprTool.class, Slot.class, ExpressionType.PROPERTY,
 			"[the] ((tool|held item|weapon)|1¦(off[ ]hand (tool|item))) [of %livingentities%]",
@@ -123,6 +124,11 @@ public class ExprTool extends PropertyExpression<LivingEntity, Slot> {
 		});
 	}
 
+	@Override
+	public Object getMemoState() {
+		return offHand;
+	}
+
 	@Override
 	public Class<Slot> getReturnType() {
 		return Slot.class;
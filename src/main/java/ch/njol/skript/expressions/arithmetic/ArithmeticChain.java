@@ -32,6 +32,7 @@ import org.skriptlang.skript.lang.arithmetic.OperationInfo;
 import org.skriptlang.skript.lang.arithmetic.Operator;
 import org.skriptlang.skript.lang.arithmetic.Arithmetics;
 import org.skriptlang.skript.lang.converter.Converters;
+import org.skriptlang.skript.lang.util.ClassPairInlineCache;
 
 /**
  * Represents a chain of arithmetic operations between two operands.
@@ -40,7 +41,7 @@ import org.skriptlang.skript.lang.converter.Converters;
  * @param <R> the type of the right operand
  * @param <T> the return type of the operation
  */
-public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
+public class ArithmeticChain<L, R, T> implements OperationChain<T> {
 
 	@SuppressWarnings("unchecked")
 	private static final Checker<Object>[] CHECKERS = new Checker[] {
@@ -54,7 +55,14 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 	private final Operator operator;
 	private final Class<? extends T> returnType;
 	@Nullable
-	private OperationInfo<? extends L, ? extends R, ? extends T> operationInfo;
+	private final OperationInfo<? extends L, ? extends R, ? extends T> operationInfo;
+
+	/**
+	 * Used to find operations during runtime if the operand types weren't known while parsing.
+	 * A pair with {@link Object} as one of its classes represents a null operand of unknown type.
+	 */
+	@Nullable
+	private final ClassPairInlineCache<OperationInfo<?, ?, ?>> operationCache;
 
 	public ArithmeticChain(ArithmeticGettable<L> left, Operator operator, ArithmeticGettable<R> right, @Nullable OperationInfo<L, R, T> operationInfo) {
 		this.left = left;
@@ -62,6 +70,7 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 		this.operator = operator;
 		this.operationInfo = operationInfo;
 		this.returnType = operationInfo != null ? operationInfo.getReturnType() : (Class<? extends T>) Object.class;
+		this.operationCache = operationInfo != null ? null : new ClassPairInlineCache<>(this::resolveOperationInfo);
 	}
 
 	@Override
@@ -69,11 +78,11 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 	@SuppressWarnings("unchecked")
 	public T get(Event event) {
 		L left = this.left.get(event);
-		if (left == null && this.left instanceof ArithmeticChain)
+		if (left == null && this.left instanceof OperationChain)
 			return null;
 
 		R right = this.right.get(event);
-		if (right == null && this.right instanceof ArithmeticChain)
+		if (right == null && this.right instanceof OperationChain)
 			return null;
 
 		Class<? extends L> leftClass = left != null ? (Class<? extends L>) left.getClass() : this.left.getReturnType();
@@ -82,12 +91,11 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 		if (leftClass == Object.class && rightClass == Object.class)
 			return null;
 
-		if (left == null && leftClass == Object.class) {
-			operationInfo = lookupOperationInfo(rightClass, OperationInfo::getRight);
-		} else if (right == null && rightClass == Object.class) {
-			operationInfo = lookupOperationInfo(leftClass, OperationInfo::getLeft);
-		} else if (operationInfo == null) {
-			operationInfo = Arithmetics.lookupOperationInfo(operator, leftClass, rightClass, returnType);
+		OperationInfo<? extends L, ? extends R, ? extends T> operationInfo = this.operationInfo;
+		if (operationInfo == null) {
+			assert operationCache != null;
+			// a null operand of unknown type is looked up using Object as its class
+			operationInfo = (OperationInfo<? extends L, ? extends R, ? extends T>) operationCache.get(leftClass, rightClass);
 		}
 
 		if (operationInfo == null)
@@ -103,6 +111,15 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 		return ((Operation<L, R, T>) operationInfo.getOperation()).calculate(left, right);
 	}
 
+	@Nullable
+	private OperationInfo<?, ?, ?> resolveOperationInfo(Class<?> leftClass, Class<?> rightClass) {
+		if (leftClass == Object.class)
+			return lookupOperationInfo(rightClass, OperationInfo::getRight);
+		if (rightClass == Object.class)
+			return lookupOperationInfo(leftClass, OperationInfo::getLeft);
+		return Arithmetics.lookupOperationInfo(operator, leftClass, rightClass, returnType);
+	}
+
 	@Nullable
 	@SuppressWarnings("unchecked")
 	private OperationInfo<L, R, T> lookupOperationInfo(Class<?> anchor, Function<OperationInfo<?, ?, ?>, Class<?>> anchorFunction) {
@@ -126,6 +143,26 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 		return returnType;
 	}
 
+	@Override
+	public long getCacheHits() {
+		long hits = operationCache != null ? operationCache.getHits() : 0;
+		if (left instanceof OperationChain)
+			hits += ((OperationChain<?>) left).getCacheHits();
+		if (right instanceof OperationChain)
+			hits += ((OperationChain<?>) right).getCacheHits();
+		return hits;
+	}
+
+	@Override
+	public long getCacheMisses() {
+		long misses = operationCache != null ? operationCache.getMisses() : 0;
+		if (left instanceof OperationChain)
+			misses += ((OperationChain<?>) left).getCacheMisses();
+		if (right instanceof OperationChain)
+			misses += ((OperationChain<?>) right).getCacheMisses();
+		return misses;
+	}
+
 	@Nullable
 	@SuppressWarnings("unchecked")
 	public static <L, R, T> ArithmeticGettable<T> parse(List<Object> chain) {
@@ -147,6 +184,9 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 					operationInfo = (OperationInfo<L, R, T>) Arithmetics.lookupOperationInfo(operator, left.getReturnType(), right.getReturnType());
 					if (operationInfo == null)
 						return null;
+					// operations between numbers can be calculated without boxing intermediate results
+					if (NumericArithmeticChain.isNumericOperation(operator, operationInfo))
+						return (ArithmeticGettable<T>) new NumericArithmeticChain((ArithmeticGettable<? extends Number>) left, operator, (ArithmeticGettable<? extends Number>) right);
 				}
 
 				return new ArithmeticChain<>(left, operator, right, operationInfo);
@@ -24,11 +24,14 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.UnparsedLiteral;
+import ch.njol.skript.lang.parser.ScriptOptimizer;
+import ch.njol.skript.lang.util.ContextlessEvent;
 import ch.njol.skript.lang.util.SimpleExpression;
 import ch.njol.skript.lang.util.SimpleLiteral;
 import ch.njol.skript.registrations.Classes;
@@ -53,6 +56,7 @@ import java.util.List;
 	"message \"You have %health of player * 2% half hearts of HP!\""})
 @Since("1.4.2")
 @SuppressWarnings("null")
+@AsyncSafe
 public class ExprArithmetic<L, R, T> extends SimpleExpression<T> {
 
 	private static final Class<?>[] INTEGER_CLASSES = {Long.class, Integer.class, Short.class, Byte.class};
@@ -117,6 +121,10 @@ public class ExprArithmetic<L, R, T> extends SimpleExpression<T> {
 
 	private boolean leftGrouped, rightGrouped;
 
+	// The result of the chain, if it only consists of constants
+	@Nullable
+	private T constantResult;
+
 	@Override
 	@SuppressWarnings({"ConstantConditions", "rawtypes", "unchecked"})
 	public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
@@ -304,13 +312,46 @@ public class ExprArithmetic<L, R, T> extends SimpleExpression<T> {
 		}
 
 		arithmeticGettable = ArithmeticChain.parse(chain);
-		return arithmeticGettable != null || error(firstClass, secondClass);
+		if (arithmeticGettable == null)
+			return error(firstClass, secondClass);
+
+		/*
+		 * Step 4: Constant Folding
+		 *
+		 * If every expression of the chain is constant, the result will always be the same.
+		 * As long as that result is a number, and thus immutable, it is calculated once now instead of every time.
+		 */
+
+		if (Number.class.isAssignableFrom(returnType) && isChainConstant()) {
+			constantResult = arithmeticGettable.get(ContextlessEvent.get());
+			if (constantResult != null)
+				ScriptOptimizer.recordFold();
+		}
+		return true;
+	}
+
+	private boolean isChainConstant() {
+		for (Object object : chain) {
+			if (!(object instanceof Expression))
+				continue;
+			Expression<?> expression = (Expression<?>) object;
+			if (!expression.isSingle() || !ScriptOptimizer.isConstant(expression))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return Whether the result of this expression was calculated while parsing, as all its operands are constant.
+	 */
+	public boolean isConstant() {
+		return constantResult != null;
 	}
 
 	@Override
 	@SuppressWarnings("unchecked")
 	protected T[] get(Event event) {
-		T result = arithmeticGettable.get(event);
+		T result = constantResult != null ? constantResult : arithmeticGettable.get(event);
 		T[] one = (T[]) Array.newInstance(result == null ? returnType : result.getClass(), 1);
 		one[0] = result;
 		return one;
@@ -341,7 +382,12 @@ public class ExprArithmetic<L, R, T> extends SimpleExpression<T> {
 			one = '(' + one + ')';
 		if (rightGrouped)
 			two = '(' + two + ')';
-		return one + ' ' + operator + ' ' + two;
+		String string = one + ' ' + operator + ' ' + two;
+		if (debug && arithmeticGettable instanceof OperationChain) {
+			OperationChain<?> chain = (OperationChain<?>) arithmeticGettable;
+			string += " (inline cache: " + chain.getCacheHits() + " hits, " + chain.getCacheMisses() + " misses)";
+		}
+		return string;
 	}
 
 	@Override
@@ -0,0 +1,204 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.expressions.arithmetic;
+
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.arithmetic.Arithmetics;
+import org.skriptlang.skript.lang.arithmetic.OperationInfo;
+import org.skriptlang.skript.lang.arithmetic.Operator;
+
+/**
+ * Represents a chain of arithmetic operations between two numbers that uses the default number operations.
+ * Unlike {@link ArithmeticChain}, nested numeric chains are calculated on primitive values,
+ *  so only the operands and the final result are boxed instead of every intermediate result.
+ * The results are the same as those of the operations registered for {@link Number} in
+ *  {@link ch.njol.skript.classes.data.DefaultOperations}: an operation is calculated on longs if both operands are integers
+ *  (see {@link ch.njol.skript.util.Utils#isInteger(Number...)}), except for division, and on doubles otherwise.
+ */
+public class NumericArithmeticChain implements OperationChain<Number> {
+
+	private final ArithmeticGettable<? extends Number> left;
+	private final ArithmeticGettable<? extends Number> right;
+	private final Operator operator;
+
+	public NumericArithmeticChain(ArithmeticGettable<? extends Number> left, Operator operator, ArithmeticGettable<? extends Number> right) {
+		this.left = left;
+		this.right = right;
+		this.operator = operator;
+	}
+
+	@Override
+	@Nullable
+	public Number get(Event event) {
+		Result result = new Result();
+		if (!calculate(event, result))
+			return null;
+		if (result.integer)
+			return result.longValue;
+		return result.doubleValue;
+	}
+
+	/**
+	 * Calculates this chain into the given result.
+	 * @return Whether a result could be calculated, false if an operand that is a chain returned null.
+	 */
+	private boolean calculate(Event event, Result result) {
+		if (!load(left, event, result))
+			return false;
+		boolean leftInteger = result.integer;
+		long leftLong = result.longValue;
+		double leftDouble = result.doubleValue;
+
+		if (!load(right, event, result))
+			return false;
+		boolean integer = leftInteger && result.integer;
+		long rightLong = result.longValue;
+		double rightDouble = result.doubleValue;
+
+		switch (operator) {
+			case ADDITION:
+				if (integer) {
+					result.setLong(leftLong + rightLong);
+				} else {
+					result.setDouble(leftDouble + rightDouble);
+				}
+				break;
+			case SUBTRACTION:
+				if (integer) {
+					result.setLong(leftLong - rightLong);
+				} else {
+					result.setDouble(leftDouble - rightDouble);
+				}
+				break;
+			case MULTIPLICATION:
+				if (integer) {
+					result.setLong(leftLong * rightLong);
+				} else {
+					result.setDouble(leftDouble * rightDouble);
+				}
+				break;
+			case DIVISION:
+				result.setDouble(leftDouble / rightDouble);
+				break;
+			case EXPONENTIATION:
+				if (integer && rightLong >= 0) {
+					result.setLong((long) Math.pow(leftLong, rightLong));
+				} else {
+					result.setDouble(Math.pow(leftDouble, rightDouble));
+				}
+				break;
+			default:
+				throw new IllegalStateException("Unknown operator " + operator);
+		}
+		return true;
+	}
+
+	private static boolean load(ArithmeticGettable<? extends Number> gettable, Event event, Result result) {
+		if (gettable instanceof NumericArithmeticChain)
+			return ((NumericArithmeticChain) gettable).calculate(event, result);
+
+		Number number = gettable.get(event);
+		if (number == null) {
+			if (gettable instanceof OperationChain)
+				return false;
+			number = Arithmetics.getDefaultValue(Number.class);
+			if (number == null)
+				return false;
+		}
+
+		if (number instanceof Double || number instanceof Float) {
+			result.setDouble(number.doubleValue());
+		} else {
+			result.integer = true;
+			result.longValue = number.longValue();
+			result.doubleValue = number.doubleValue();
+		}
+		return true;
+	}
+
+	@Override
+	public Class<? extends Number> getReturnType() {
+		return Number.class;
+	}
+
+	/**
+	 * @return How often operations were found in the inline caches of the operands, as numeric chains don't look up operations.
+	 */
+	@Override
+	public long getCacheHits() {
+		long hits = 0;
+		if (left instanceof OperationChain)
+			hits += ((OperationChain<?>) left).getCacheHits();
+		if (right instanceof OperationChain)
+			hits += ((OperationChain<?>) right).getCacheHits();
+		return hits;
+	}
+
+	/**
+	 * @return How often operations had to be looked up by the inline caches of the operands.
+	 */
+	@Override
+	public long getCacheMisses() {
+		long misses = 0;
+		if (left instanceof OperationChain)
+			misses += ((OperationChain<?>) left).getCacheMisses();
+		if (right instanceof OperationChain)
+			misses += ((OperationChain<?>) right).getCacheMisses();
+		return misses;
+	}
+
+	/**
+	 * @param operator The operator of the operation.
+	 * @param operationInfo The operation that was found for the operands.
+	 * @return Whether the given operation is the default number operation, which can be calculated by a numeric chain.
+	 */
+	public static boolean isNumericOperation(Operator operator, @Nullable OperationInfo<?, ?, ?> operationInfo) {
+		return operationInfo != null
+			&& operationInfo.getLeft() == Number.class
+			&& operationInfo.getRight() == Number.class
+			&& operationInfo == Arithmetics.getOperationInfo(operator, Number.class, Number.class);
+	}
+
+	/**
+	 * The intermediate result of a calculation.
+	 * {@link #longValue} and {@link #doubleValue} always match what {@link Number#longValue()} and
+	 *  {@link Number#doubleValue()} would return for the boxed value.
+	 */
+	private static final class Result {
+
+		private boolean integer;
+		private long longValue;
+		private double doubleValue;
+
+		private void setLong(long value) {
+			integer = true;
+			longValue = value;
+			doubleValue = value;
+		}
+
+		private void setDouble(double value) {
+			integer = false;
+			longValue = (long) value;
+			doubleValue = value;
+		}
+
+	}
+
+}
@@ -0,0 +1,40 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.expressions.arithmetic;
+
+/**
+ * A chain of arithmetic operations, as opposed to a single operand of a chain.
+ * A chain returns null if it can't be calculated, which makes the chains containing it return null as well,
+ *  while any other operand that returns null is replaced with the default value of its type.
+ *
+ * @param <T> The return type of the chain
+ */
+public interface OperationChain<T> extends ArithmeticGettable<T> {
+
+	/**
+	 * @return How often operations were found in the inline caches of this chain and its operands.
+	 */
+	long getCacheHits();
+
+	/**
+	 * @return How often operations had to be looked up by the inline caches of this chain and its operands.
+	 */
+	long getCacheMisses();
+
+}
@@ -53,6 +53,16 @@ public abstract class Condition extends Statement {
 		return check(event);
 	}
 
+	/**
+	 * A condition is constant if its result doesn't depend on the event, the state of the server
+	 *  or options that may be changed by reloading the config (like 'case sensitive'), e.g. because it only compares numbers. Constant conditions may be checked only once, when they are loaded.
+	 * @return Whether this condition is constant.
+	 * @see ch.njol.skript.lang.parser.ScriptOptimizer
+	 */
+	public boolean isConstant() {
+		return false;
+	}
+
 	/**
 	 * Sets the negation state of this condition. This will change the behaviour of {@link Expression#check(Event, Checker, boolean)}.
 	 */
@@ -20,6 +20,7 @@ package ch.njol.skript.lang;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.lang.function.EffFunctionCall;
+import ch.njol.skript.lang.util.ExpressionMemo;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import org.bukkit.event.Event;
@@ -47,6 +48,8 @@ public abstract class Effect extends Statement {
 	@Override
 	public final boolean run(Event event) {
 		execute(event);
+		// effects may change anything, e.g. the location of an entity
+		ExpressionMemo.invalidate(event);
 		return true;
 	}
 
@@ -18,10 +18,18 @@
  */
 package ch.njol.skript.lang;
 
+import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.effects.Delay;
 import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
 
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represents a loop section.
@@ -31,14 +39,111 @@ import java.util.WeakHashMap;
  */
 public abstract class LoopSection extends Section implements SyntaxElement, Debuggable {
 
-	protected final transient Map<Event, Long> currentLoopCounter = new WeakHashMap<>();
+	/**
+	 * How many executions were split over several ticks by budgeted loops.
+	 */
+	private static final LongAdder SPLIT_EXECUTIONS = new LongAdder();
+
+	/**
+	 * A view of the loop counters of this loop, keyed by the events of the executions running it.
+	 * @deprecated The counters are stored in the {@link TriggerContext} of each execution,
+	 * use {@link #getLoopState(Event)} or {@link #getLoopCounter(Event)} instead.
+	 */
+	@Deprecated
+	protected final transient Map<Event, Long> currentLoopCounter = new AbstractMap<Event, Long>() {
+
+		@Override
+		@Nullable
+		public Long get(Object key) {
+			if (!(key instanceof Event))
+				return null;
+			TriggerContext.LoopState state = getLoopState((Event) key);
+			return state == null ? null : state.getCounter();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		@Nullable
+		public Long put(Event event, Long counter) {
+			TriggerContext.LoopState state = TriggerContext.get(event).getLoopState(LoopSection.this);
+			long previous = state.getCounter();
+			state.setCounter(counter);
+			return previous;
+		}
+
+		@Override
+		@Nullable
+		public Long remove(Object key) {
+			Long counter = get(key);
+			if (counter != null)
+				TriggerContext.get((Event) key).removeLoopState(LoopSection.this);
+			return counter;
+		}
+
+		@Override
+		public Set<Entry<Event, Long>> entrySet() {
+			return Collections.emptySet();
+		}
+
+	};
 
 	/**
 	 * @param event The event where the loop is used to return its loop iterations
 	 * @return The loop iteration number
 	 */
 	public long getLoopCounter(Event event) {
-		return currentLoopCounter.getOrDefault(event, 1L);
+		TriggerContext.LoopState state = getLoopState(event);
+		return state == null ? 1L : state.getCounter();
+	}
+
+	/**
+	 * @param event The event the loop is running with
+	 * @return The state of this loop in the execution running with the event, or null if this loop isn't running in it
+	 */
+	@Nullable
+	protected TriggerContext.LoopState getLoopState(Event event) {
+		TriggerContext context = TriggerContext.find(event);
+		return context == null ? null : context.findLoopState(this);
+	}
+
+	/**
+	 * Pauses a budgeted loop once it has used up its time slice, and continues it in the next tick.
+	 * The time slice is shared by all budgeted loops of an execution, and its length is set by
+	 * {@link SkriptConfig#budgetedLoopTimeSlice}.
+	 * Should be called whenever the loop is about to start an iteration.
+	 * @param event The event the loop is running with
+	 * @return Whether the loop was paused, in which case walking has to stop
+	 */
+	protected final boolean yieldIfOverBudget(Event event) {
+		int timeSlice = SkriptConfig.budgetedLoopTimeSlice.value();
+		if (timeSlice <= 0 || !Skript.getInstance().isEnabled())
+			return false;
+		TriggerContext context = TriggerContext.get(event);
+		long now = System.nanoTime();
+		long timeSliceStart = context.getTimeSliceStart();
+		if (timeSliceStart == 0) {
+			context.setTimeSliceStart(now);
+			return false;
+		}
+		if (now - timeSliceStart < TimeUnit.MILLISECONDS.toNanos(timeSlice))
+			return false;
+		if (!context.isSplit()) { // only count each execution once, no matter how often it pauses
+			context.setSplit();
+			SPLIT_EXECUTIONS.increment();
+		}
+		Delay.continueLater(this, event, 1);
+		return true;
+	}
+
+	/**
+	 * @return How many executions have been split over several ticks by budgeted loops
+	 */
+	public static long getSplitExecutions() {
+		return SPLIT_EXECUTIONS.sum();
 	}
 
 	/**
@@ -51,7 +156,9 @@ public abstract class LoopSection extends Section implements SyntaxElement, Debu
 	 * @param event The event where the loop is used to reset its relevant properties
 	 */
 	public void exit(Event event) {
-		currentLoopCounter.remove(event);
+		TriggerContext context = TriggerContext.find(event);
+		if (context != null)
+			context.removeLoopState(this);
 	}
 
 }
@@ -26,6 +26,7 @@ import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.events.EvtClick;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.structures.StructEvent.EventData;
+import ch.njol.util.Kleenean;
 import org.skriptlang.skript.lang.script.Script;
 import org.skriptlang.skript.lang.entry.EntryContainer;
 import org.skriptlang.skript.lang.structure.Structure;
@@ -54,6 +55,7 @@ public abstract class SkriptEvent extends Structure {
 	private String expr;
 	@Nullable
 	protected EventPriority eventPriority;
+	private boolean async;
 	private SkriptEventInfo<?> skriptEventInfo;
 
 	/**
@@ -71,6 +73,7 @@ public abstract class SkriptEvent extends Structure {
 			return false;
 		}
 		eventPriority = priority;
+		async = getParser().getData(EventData.class).isAsync();
 
 		SyntaxElementInfo<? extends Structure> syntaxElementInfo = getParser().getData(StructureData.class).getStructureInfo();
 		if (!(syntaxElementInfo instanceof SkriptEventInfo))
@@ -112,6 +115,11 @@ public abstract class SkriptEvent extends Structure {
 
 		try {
 			getParser().setCurrentEvent(skriptEventInfo.getName().toLowerCase(Locale.ENGLISH), eventClasses);
+			if (async) {
+				// async triggers only start once the event has passed
+				getParser().setHasDelayBefore(Kleenean.TRUE);
+				getParser().setAsync(true);
+			}
 
 			@Nullable List<TriggerItem> items = ScriptLoader.loadItems(source);
 			Script script = getParser().getCurrentScript();
@@ -121,6 +129,7 @@ public abstract class SkriptEvent extends Structure {
 			trigger.setLineNumber(lineNumber); // Set line number for debugging
 			trigger.setDebugLabel(script + ": line " + lineNumber);
 		} finally {
+			getParser().setAsync(false);
 			getParser().deleteCurrentEvent();
 		}
 
@@ -161,6 +170,14 @@ public abstract class SkriptEvent extends Structure {
 		return PRIORITY;
 	}
 
+	/**
+	 * @return The Trigger containing this SkriptEvent's code, or null if it hasn't been loaded.
+	 */
+	@Nullable
+	public Trigger getTrigger() {
+		return trigger;
+	}
+
 	/**
 	 * Checks whether the given Event applies, e.g. the left-click event is only part of the PlayerInteractEvent, and this checks whether the player left-clicked or not. This method
 	 * will only be called for events this SkriptEvent is registered for.
@@ -199,6 +216,17 @@ public abstract class SkriptEvent extends Structure {
 		return true;
 	}
 
+	/**
+	 * @return whether this event's trigger runs off the main server thread, after the event has passed.
+	 * It starts once all other triggers of the event with the same priority have run,
+	 *  while triggers with a later priority may run at the same time.
+	 * This is the case if the user prefixed the event with 'async'.
+	 * @see ch.njol.skript.sections.SecSync
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+
 	/**
 	 * Override this method to allow Skript to not force synchronization.
 	 */
@@ -31,6 +31,7 @@ import ch.njol.skript.lang.function.ExprFunctionCall;
 import ch.njol.skript.lang.function.FunctionReference;
 import ch.njol.skript.lang.function.Functions;
 import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.lang.parser.ParseProfiler;
 import ch.njol.skript.lang.util.SimpleLiteral;
 import ch.njol.skript.localization.Language;
 import ch.njol.skript.localization.Message;
@@ -214,9 +215,11 @@ public class SkriptParser {
 	@Nullable
 	private <T extends SyntaxElement> T parse(Iterator<? extends SyntaxElementInfo<? extends T>> source) {
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		boolean profiling = ParseProfiler.isProfiling();
 		try {
 			while (source.hasNext()) {
 				SyntaxElementInfo<? extends T> info = source.next();
+				long start = profiling ? System.nanoTime() : 0;
 				patternsLoop: for (int patternIndex = 0; patternIndex < info.patterns.length; patternIndex++) {
 					log.clear();
 					try {
@@ -262,7 +265,14 @@ public class SkriptParser {
 							}
 							T element = info.getElementClass().newInstance();
 							if (element.init(parseResult.exprs, patternIndex, getParser().getHasDelayBefore(), parseResult)) {
+								if (getParser().isAsync() && !info.getElementClass().isAnnotationPresent(AsyncSafe.class)) {
+									Skript.error("'" + expr + "' can't be used in async events, as it isn't known to be safe to run off the main thread."
+										+ " Put it in a 'sync' section instead.", ErrorQuality.SEMANTIC_ERROR);
+									continue;
+								}
 								log.printLog();
+								if (profiling)
+									ParseProfiler.recordAttempt(info, true, System.nanoTime() - start);
 								return element;
 							}
 						}
@@ -270,6 +280,8 @@ public class SkriptParser {
 						assert false;
 					}
 				}
+				if (profiling)
+					ParseProfiler.recordAttempt(info, false, System.nanoTime() - start);
 			}
 			log.printError();
 			return null;
@@ -914,6 +926,13 @@ public class SkriptParser {
 				return null;
 			}
 
+			if (getParser().isAsync()) {
+				Skript.error("Functions can't be called in async events, as their code may not be safe to run off the main thread."
+					+ " Call them in a 'sync' section instead.", ErrorQuality.SEMANTIC_ERROR);
+				log.printError();
+				return null;
+			}
+
 			if (args.length() != 0) {
 				Expression<?> parsedExpression = new SkriptParser(args, flags | PARSE_LITERALS, context).suppressMissingAndOrWarnings().parseExpression(Object.class);
 				if (parsedExpression == null) {
@@ -20,10 +20,13 @@ package ch.njol.skript.lang;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.lang.function.EffFunctionCall;
+import ch.njol.skript.lang.parser.ParseCache;
+import ch.njol.skript.lang.parser.ParseProfiler;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import org.eclipse.jdt.annotation.Nullable;
 
+import java.util.Collections;
 import java.util.Iterator;
 
 /**
@@ -56,7 +59,21 @@ public abstract class Statement extends TriggerItem implements SyntaxElement {
 			}
 			log.clear();
 
+			// try what this line was parsed as the last time it was loaded before searching all statements
+			SyntaxElementInfo<? extends Statement> decision = ParseCache.getDecision(Skript.getStatements());
+			if (decision != null) {
+				Statement statement = (Statement) SkriptParser.parse(input, (Iterator) Collections.singleton(decision).iterator(), null);
+				if (ParseProfiler.isProfiling())
+					ParseProfiler.recordCacheLookup(statement != null);
+				if (statement != null) {
+					log.printLog();
+					return statement;
+				}
+				log.clear();
+			}
+
 			Statement statement = (Statement) SkriptParser.parse(input, (Iterator) Skript.getStatements().iterator(), defaultError);
+			ParseCache.record(statement);
 			if (statement != null) {
 				log.printLog();
 				return statement;
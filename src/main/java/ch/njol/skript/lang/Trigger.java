@@ -18,6 +18,9 @@
  */
 package ch.njol.skript.lang;
 
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.lang.util.ExpressionMemo;
+import ch.njol.skript.timings.ExecutionProfiler;
 import org.skriptlang.skript.lang.script.Script;
 import ch.njol.skript.variables.Variables;
 import org.bukkit.event.Event;
@@ -32,9 +35,19 @@ public class Trigger extends TriggerSection {
 
 	@Nullable
 	private final Script script;
-	private int line = -1; // -1 is default: it means there is no line number available
 	private String debugLabel;
 
+	/**
+	 * How often this trigger has been executed, until it is compiled.
+	 * Not synchronized, as it doesn't matter if an execution is occasionally missed.
+	 */
+	private int executions;
+	/**
+	 * Set once this trigger has been compiled, which also publishes the compiled runs of its items
+	 *  to the threads executing this trigger afterwards.
+	 */
+	private volatile boolean compiled;
+
 	public Trigger(@Nullable Script script, String name, SkriptEvent event, List<TriggerItem> items) {
 		super(items);
 		this.script = script;
@@ -49,7 +62,24 @@ public class Trigger extends TriggerSection {
 	 * @return false if an exception occurred.
 	 */
 	public boolean execute(Event event) {
-		boolean success = TriggerItem.walk(this, event);
+		if (!compiled) {
+			int compileThreshold = SkriptConfig.triggerCompileThreshold.value();
+			if (compileThreshold > 0 && ++executions >= compileThreshold) {
+				TriggerCompiler.compile(this);
+				compiled = true;
+			}
+		}
+
+		boolean memoizing = ExpressionMemo.start(event);
+		ExecutionProfiler.Recorder recorder = ExecutionProfiler.enter(this);
+		boolean success;
+		try {
+			success = TriggerItem.walk(this, event);
+		} finally {
+			ExecutionProfiler.exit(recorder);
+			if (memoizing)
+				ExpressionMemo.stop(event);
+		}
 
 		// Clear local variables
 		Variables.removeLocals(event);
@@ -99,22 +129,6 @@ public class Trigger extends TriggerSection {
 		return script;
 	}
 
-	/**
-	 * Sets line number for this trigger's start.
-	 * Only used for debugging.
-	 * @param line Line number
-	 */
-	public void setLineNumber(int line) {
-		this.line  = line;
-	}
-
-	/**
-	 * @return The line number where this trigger starts. This should ONLY be used for debugging!
-	 */
-	public int getLineNumber() {
-		return line;
-	}
-
 	public void setDebugLabel(String label) {
 		this.debugLabel = label;
 	}
@@ -0,0 +1,98 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang;
+
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles triggers that are executed often into a form that is faster to execute.
+ * <p>
+ * A trigger is compiled by finding every run of consecutive items in the same section that don't override
+ *  {@link TriggerItem#walk(Event)}, i.e. plain effects and conditions. Each run is stored in its first item
+ *  and executed by {@link TriggerItem#walk(TriggerItem, Event)} by calling {@link TriggerItem#run(Event)}
+ *  on each item directly, without walking from one item to the next.
+ * Sections and items with custom control flow (e.g. delays, returns or loop controls) are never part of a run,
+ *  so they are still executed by the interpreter, and compiled triggers behave exactly like uncompiled ones.
+ */
+public final class TriggerCompiler {
+
+	private TriggerCompiler() {}
+
+	/**
+	 * Whether items of a class use the default implementation of {@link TriggerItem#walk(Event)}.
+	 */
+	private static final Map<Class<?>, Boolean> PLAIN_ITEMS = new ConcurrentHashMap<>();
+
+	/**
+	 * Compiles the given trigger. Compiling a trigger more than once has no further effect.
+	 * @param trigger The trigger to compile.
+	 * @return How many items are now executed as part of a compiled run.
+	 */
+	public static int compile(Trigger trigger) {
+		return compile((TriggerSection) trigger);
+	}
+
+	private static int compile(TriggerSection section) {
+		int compiled = 0;
+		TriggerItem item = section.first;
+		while (item != null && item.getParent() == section) {
+			if (item instanceof TriggerSection) {
+				compiled += compile((TriggerSection) item);
+				// loops are their own next item, so that their body is walked again
+				item = item instanceof LoopSection ? ((LoopSection) item).getActualNext() : item.getNext();
+				continue;
+			}
+
+			List<TriggerItem> run = new ArrayList<>();
+			while (item != null && item.getParent() == section && isPlain(item)) {
+				run.add(item);
+				item = item.getNext();
+			}
+
+			if (run.size() > 1) {
+				run.get(0).setCompiledRun(run.toArray(new TriggerItem[0]));
+				compiled += run.size();
+			} else if (run.isEmpty()) { // an item with custom control flow
+				item = item.getNext();
+			}
+		}
+		return compiled;
+	}
+
+	private static boolean isPlain(TriggerItem item) {
+		return PLAIN_ITEMS.computeIfAbsent(item.getClass(), TriggerCompiler::isPlain);
+	}
+
+	private static boolean isPlain(Class<?> type) {
+		for (Class<?> current = type; current != TriggerItem.class; current = current.getSuperclass()) {
+			try {
+				current.getDeclaredMethod("walk", Event.class);
+				return false;
+			} catch (NoSuchMethodException ignored) { }
+		}
+		return true;
+	}
+
+}
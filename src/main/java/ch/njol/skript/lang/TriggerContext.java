@@ -0,0 +1,326 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang;
+
+import ch.njol.skript.effects.Delay;
+import ch.njol.skript.variables.Variables;
+import com.google.common.collect.MapMaker;
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state of a running execution of a trigger: its local variables, the state of its loops and whether it has been delayed.
+ * <br>
+ * A context is looked up once per access through the event the trigger is running with,
+ *  instead of every kind of state keeping its own map keyed by events.
+ * It is only registered for its event while the execution is running on a thread.
+ * When an execution is suspended, e.g. by a {@link Delay}, {@link Variables#removeLocals(Event)}
+ *  returns a backup of the local variables that also carries the rest of the context,
+ *  and {@link Variables#setLocalVariables(Event, Object)} registers the whole context again.
+ * This way the event-keyed methods of {@link Variables}, {@link Delay} and {@link LoopSection} keep working for addons.
+ * Code that already has the context can pass it to the overloads taking a context instead, which saves looking it up.
+ * <br>
+ * Contexts are only weakly bound to their events, so that executions which never reach {@link Variables#removeLocals(Event)}
+ *  (e.g. an addon running a trigger item directly) don't keep their state forever.
+ * <br>
+ * The triggers of async events all run with the same event at the same time, so they can't share a context registered for it.
+ * Each of them runs {@link #runIsolated(Event, TriggerContext, Runnable) isolated} instead,
+ *  with its own context that is only bound to the event on the thread running it.
+ * <br>
+ * A context is only used by one thread at a time, so it isn't synchronized.
+ */
+public final class TriggerContext {
+
+	private static final Map<Event, TriggerContext> CONTEXTS = new MapMaker().weakKeys().makeMap();
+
+	/**
+	 * The context bound by {@link #runIsolated(Event, TriggerContext, Runnable)} on each thread.
+	 */
+	private static final ThreadLocal<Isolation> ISOLATIONS = new ThreadLocal<>();
+
+	/**
+	 * The number of isolated executions that are running, so that other executions don't have to look at {@link #ISOLATIONS}.
+	 */
+	private static final AtomicInteger isolatedExecutions = new AtomicInteger();
+
+	private static final class Isolation {
+
+		private final Event event;
+		@Nullable
+		private TriggerContext context;
+
+		private Isolation(Event event, @Nullable TriggerContext context) {
+			this.event = event;
+			this.context = context;
+		}
+
+	}
+
+	/**
+	 * @return The isolation of the execution running with the given event on this thread, or null if it isn't isolated.
+	 */
+	@Nullable
+	private static Isolation getIsolation(Event event) {
+		if (isolatedExecutions.get() == 0)
+			return null;
+		Isolation isolation = ISOLATIONS.get();
+		return isolation != null && isolation.event == event ? isolation : null;
+	}
+
+	/**
+	 * Runs an execution with the given event on this thread with its own context,
+	 *  which doesn't affect executions with the same event on other threads.
+	 * While it is running, the methods of this class only use that context for the event on this thread.
+	 * @param context The context to run with, e.g. the one of an execution that continues on another thread,
+	 * or null to start with a new one.
+	 */
+	public static void runIsolated(Event event, @Nullable TriggerContext context, Runnable runnable) {
+		Isolation previous = ISOLATIONS.get();
+		ISOLATIONS.set(new Isolation(event, context));
+		isolatedExecutions.incrementAndGet();
+		try {
+			runnable.run();
+		} finally {
+			isolatedExecutions.decrementAndGet();
+			if (previous == null) {
+				ISOLATIONS.remove();
+			} else {
+				ISOLATIONS.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * @return The context of the execution running with the given event, which is created if there is none.
+	 */
+	public static TriggerContext get(Event event) {
+		Isolation isolation = getIsolation(event);
+		if (isolation != null) {
+			TriggerContext context = isolation.context;
+			if (context == null)
+				isolation.context = context = new TriggerContext();
+			return context;
+		}
+		TriggerContext context = CONTEXTS.get(event);
+		if (context == null)
+			context = CONTEXTS.computeIfAbsent(event, key -> new TriggerContext());
+		return context;
+	}
+
+	/**
+	 * @return The context of the execution running with the given event, or null if it has no state.
+	 */
+	@Nullable
+	public static TriggerContext find(Event event) {
+		Isolation isolation = getIsolation(event);
+		if (isolation != null)
+			return isolation.context;
+		return CONTEXTS.get(event);
+	}
+
+	/**
+	 * Registers a context for the given event, e.g. when a suspended execution continues.
+	 */
+	public static void set(Event event, TriggerContext context) {
+		Isolation isolation = getIsolation(event);
+		if (isolation != null) {
+			isolation.context = context;
+			return;
+		}
+		CONTEXTS.put(event, context);
+	}
+
+	/**
+	 * Unregisters the context of the given event, e.g. when an execution ends or is suspended.
+	 * @return The removed context, or null if the event had none.
+	 */
+	@Nullable
+	public static TriggerContext remove(Event event) {
+		Isolation isolation = getIsolation(event);
+		if (isolation != null) {
+			TriggerContext context = isolation.context;
+			isolation.context = null;
+			return context;
+		}
+		return CONTEXTS.remove(event);
+	}
+
+	/**
+	 * The state of a loop within an execution.
+	 */
+	public static final class LoopState {
+
+		@Nullable
+		private Object current;
+		@Nullable
+		private Iterator<?> iterator;
+		private long counter;
+
+		/**
+		 * @return The value of the current iteration.
+		 */
+		@Nullable
+		public Object getCurrent() {
+			return current;
+		}
+
+		public void setCurrent(@Nullable Object current) {
+			this.current = current;
+		}
+
+		@Nullable
+		public Iterator<?> getIterator() {
+			return iterator;
+		}
+
+		public void setIterator(@Nullable Iterator<?> iterator) {
+			this.iterator = iterator;
+		}
+
+		/**
+		 * @return The number of the current iteration, or 0 if the loop hasn't started yet.
+		 */
+		public long getCounter() {
+			return counter;
+		}
+
+		/**
+		 * Starts the next iteration.
+		 */
+		public void increaseCounter() {
+			counter++;
+		}
+
+		public void setCounter(long counter) {
+			this.counter = counter;
+		}
+
+	}
+
+	/**
+	 * The local variables, managed by {@link Variables}.
+	 */
+	@Nullable
+	private Object locals;
+
+	@Nullable
+	private Map<LoopSection, LoopState> loops;
+
+	private boolean delayed;
+
+	/**
+	 * Whether a budgeted loop paused this execution to continue it in a later tick.
+	 */
+	private boolean split;
+
+	/**
+	 * When the current time slice of budgeted loops started, in {@link System#nanoTime()}, or 0 if none started yet.
+	 */
+	private long timeSliceStart;
+
+	@Nullable
+	public Object getLocals() {
+		return locals;
+	}
+
+	public void setLocals(@Nullable Object locals) {
+		this.locals = locals;
+	}
+
+	/**
+	 * @return The state of the given loop, which is created if the loop isn't running yet.
+	 */
+	public LoopState getLoopState(LoopSection loop) {
+		Map<LoopSection, LoopState> loops = this.loops;
+		if (loops == null)
+			this.loops = loops = new IdentityHashMap<>(4);
+		return loops.computeIfAbsent(loop, key -> new LoopState());
+	}
+
+	/**
+	 * @return The state of the given loop, or null if it isn't running.
+	 */
+	@Nullable
+	public LoopState findLoopState(LoopSection loop) {
+		Map<LoopSection, LoopState> loops = this.loops;
+		return loops == null ? null : loops.get(loop);
+	}
+
+	/**
+	 * Discards the state of the given loop, once it has been exited.
+	 */
+	public void removeLoopState(LoopSection loop) {
+		Map<LoopSection, LoopState> loops = this.loops;
+		if (loops != null)
+			loops.remove(loop);
+	}
+
+	/**
+	 * @return Whether the execution has been delayed, i.e. the event it was started by has already passed.
+	 * @see Delay#isDelayed(Event)
+	 */
+	public boolean isDelayed() {
+		return delayed;
+	}
+
+	/**
+	 * Marks the execution as delayed. As it will continue in a later tick, this also ends the current time slice.
+	 */
+	public void setDelayed() {
+		delayed = true;
+		timeSliceStart = 0;
+	}
+
+	/**
+	 * @return Whether a budgeted loop paused this execution to continue it in a later tick.
+	 * @see LoopSection#yieldIfOverBudget(Event)
+	 */
+	public boolean isSplit() {
+		return split;
+	}
+
+	public void setSplit() {
+		split = true;
+	}
+
+	/**
+	 * @return When the current time slice of budgeted loops started, in {@link System#nanoTime()}, or 0 if none started yet.
+	 * @see LoopSection#yieldIfOverBudget(Event)
+	 */
+	public long getTimeSliceStart() {
+		return timeSliceStart;
+	}
+
+	public void setTimeSliceStart(long timeSliceStart) {
+		this.timeSliceStart = timeSliceStart;
+	}
+
+	/**
+	 * @return Whether this context holds any state other than local variables, which has to be kept while the execution is suspended.
+	 */
+	public boolean hasState() {
+		return delayed || loops != null && !loops.isEmpty();
+	}
+
+}
@@ -19,6 +19,7 @@
 package ch.njol.skript.lang;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.timings.ExecutionProfiler;
 import ch.njol.skript.util.SkriptColor;
 import ch.njol.util.StringUtils;
 import org.bukkit.event.Event;
@@ -42,6 +43,17 @@ public abstract class TriggerItem implements Debuggable {
 	@Nullable
 	private TriggerItem next = null;
 
+	/**
+	 * The items that are executed directly when execution reaches this item, set when this item's trigger is compiled.
+	 * Not volatile, as it is read for every executed item, even if compiling is disabled.
+	 * Instead, it is published by {@link Trigger} after compiling.
+	 * @see TriggerCompiler
+	 */
+	@Nullable
+	private TriggerItem[] compiledRun = null;
+
+	private int line = -1; // -1 is default: it means there is no line number available
+
 	protected TriggerItem() {}
 
 	protected TriggerItem(TriggerSection parent) {
@@ -84,11 +96,63 @@ public abstract class TriggerItem implements Debuggable {
 	public static boolean walk(TriggerItem start, Event event) {
 		TriggerItem triggerItem = start;
 		try {
-			while (triggerItem != null)
-				triggerItem = triggerItem.walk(event);
+			// only checked once per walk, so that walks which aren't profiled don't pay for it on every item
+			if (ExecutionProfiler.isProfiling()) {
+				// a continuation (e.g. after a delay) doesn't start at its trigger, so it is entered here to record the lines under it
+				Trigger trigger = start instanceof Trigger ? null : start.getTrigger();
+				ExecutionProfiler.Recorder recorder = trigger == null ? null : ExecutionProfiler.enterContinuation(trigger);
+				try {
+					// compiled runs are skipped so that every line is measured
+					while (triggerItem != null)
+						triggerItem = walkProfiled(triggerItem, event);
+				} finally {
+					ExecutionProfiler.exit(recorder);
+				}
+				return true;
+			}
+			while (triggerItem != null) {
+				TriggerItem[] compiledRun = triggerItem.compiledRun;
+				if (compiledRun == null) {
+					triggerItem = triggerItem.walk(event);
+					continue;
+				}
+
+				// equivalent to walking the items of the run one by one
+				int index = 0;
+				while (index < compiledRun.length) {
+					triggerItem = compiledRun[index];
+					if (!triggerItem.run(event))
+						break;
+					triggerItem.debug(event, true);
+					index++;
+				}
+				if (index == compiledRun.length) {
+					triggerItem = triggerItem.next;
+				} else {
+					triggerItem.debug(event, false);
+					TriggerSection parent = triggerItem.parent;
+					triggerItem = parent == null ? null : parent.getNext();
+				}
+			}
 
 			return true;
-		} catch (StackOverflowError err) {
+		} catch (Throwable throwable) {
+			if (!handleError(throwable, start, triggerItem))
+				throw throwable;
+		}
+		return false;
+	}
+
+	/**
+	 * Reports a Throwable thrown while executing the given item the way {@link #walk(TriggerItem, Event)} does:
+	 *  stack overflows are broadcast to admins, and exceptions are logged.
+	 * Any other Throwable marks Skript as errored, but has to be rethrown by the caller, as we usually don't want to catch them.
+	 * @param start The item the execution started at, whose script is named if the stack overflowed.
+	 * @param item The item that was being executed.
+	 * @return Whether the Throwable was handled, false if the caller has to rethrow it.
+	 */
+	public static boolean handleError(Throwable throwable, TriggerItem start, @Nullable TriggerItem item) {
+		if (throwable instanceof StackOverflowError) {
 			Trigger trigger = start.getTrigger();
 			String scriptName = "<unknown>";
 			if (trigger != null) {
@@ -101,18 +165,30 @@ public abstract class TriggerItem implements Debuggable {
 			}
 			Skript.adminBroadcast("<red>The script '<gold>" + scriptName + "<red>' infinitely (or excessively) repeated itself!");
 			if (Skript.debug())
-				err.printStackTrace();
-		} catch (Exception ex) {
-			if (ex.getStackTrace().length != 0) // empty exceptions have already been printed
-				Skript.exception(ex, triggerItem);
-		} catch (Throwable throwable) {
-			// not all Throwables are Exceptions, but we usually don't want to catch them (without rethrowing)
-			Skript.markErrored();
-			throw throwable;
+				throwable.printStackTrace();
+			return true;
+		} else if (throwable instanceof Exception) {
+			if (throwable.getStackTrace().length != 0) // empty exceptions have already been printed
+				Skript.exception(throwable, item);
+			return true;
 		}
+		// not all Throwables are Exceptions, but we usually don't want to catch them (without rethrowing)
+		Skript.markErrored();
 		return false;
 	}
 
+	@Nullable
+	private static TriggerItem walkProfiled(TriggerItem triggerItem, Event event) {
+		if (triggerItem instanceof Trigger) // measured by Trigger#execute
+			return triggerItem.walk(event);
+		ExecutionProfiler.Recorder recorder = ExecutionProfiler.enter(triggerItem);
+		try {
+			return triggerItem.walk(event);
+		} finally {
+			ExecutionProfiler.exit(recorder);
+		}
+	}
+
 	/**
 	 * how much to indent each level
 	 */
@@ -164,6 +240,22 @@ public abstract class TriggerItem implements Debuggable {
 		return (Trigger) triggerItem;
 	}
 
+	/**
+	 * Sets the line number of this item.
+	 * Only used for debugging and profiling.
+	 * @param line Line number
+	 */
+	public void setLineNumber(int line) {
+		this.line = line;
+	}
+
+	/**
+	 * @return The line number of this item, or -1 if it is unknown. This should ONLY be used for debugging and profiling!
+	 */
+	public int getLineNumber() {
+		return line;
+	}
+
 	public TriggerItem setNext(@Nullable TriggerItem next) {
 		this.next = next;
 		return this;
@@ -174,4 +266,12 @@ public abstract class TriggerItem implements Debuggable {
 		return next;
 	}
 
+	/**
+	 * @param compiledRun The items to execute directly when execution reaches this item, starting with this item.
+	 * @see TriggerCompiler
+	 */
+	void setCompiledRun(TriggerItem[] compiledRun) {
+		this.compiledRun = compiledRun;
+	}
+
 }
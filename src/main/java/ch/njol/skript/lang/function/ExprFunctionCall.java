@@ -20,6 +20,7 @@ package ch.njol.skript.lang.function;
 
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.util.ExpressionMemo;
 import ch.njol.skript.lang.util.SimpleExpression;
 import org.skriptlang.skript.lang.converter.Converters;
 import ch.njol.skript.util.Utils;
@@ -59,6 +60,8 @@ public class ExprFunctionCall<T> extends SimpleExpression<T> {
 	protected T[] get(Event e) {
 		Object[] returnValue = function.execute(e);
 		function.resetReturnValue();
+		// the function may have changed anything, e.g. the location of an entity
+		ExpressionMemo.invalidate(e);
 		return Converters.convert(returnValue, returnTypes, returnType);
 	}
 
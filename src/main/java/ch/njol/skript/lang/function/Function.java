@@ -40,10 +40,24 @@ public abstract class Function<T> {
 
 	private final Signature<T> sign;
 	
+	/**
+	 * The values this function returned for recently used arguments, or null if this function isn't cached.
+	 */
+	@Nullable
+	FunctionCache cache;
+	
 	public Function(Signature<T> sign) {
 		this.sign = sign;
 	}
 	
+	/**
+	 * @return The cache of this function, or null if its return values aren't cached.
+	 */
+	@Nullable
+	public FunctionCache getCache() {
+		return cache;
+	}
+	
 	/**
 	 * Gets signature of this function that contains all metadata about it.
 	 * @return A function signature.
@@ -83,7 +97,7 @@ public abstract class Function<T> {
 	 * {@link Signature#getMaxParameters()} elements.
 	 * @return The result(s) of this function
 	 */
-	@SuppressWarnings("null")
+	@SuppressWarnings({"null", "unchecked"})
 	@Nullable
 	public final T[] execute(Object[][] params) {
 		FunctionEvent<? extends T> e = new FunctionEvent<>(this);
@@ -125,8 +139,17 @@ public abstract class Function<T> {
 			ps[i] = val;
 		}
 		
+		FunctionCache cache = this.cache;
+		if (cache != null) {
+			Object[] cached = cache.get(ps);
+			if (cached != null)
+				return FunctionCache.isNoValue(cached) ? null : (T[]) cached;
+		}
+		
 		// Execute function contents
 		T[] r = execute(e, ps);
+		if (cache != null)
+			cache.put(ps, r);
 		// Assert that return value type makes sense
 		assert sign.getReturnType() == null ? r == null : r == null
 			|| (r.length <= 1 || !sign.isSingle()) && !CollectionUtils.contains(r, null)
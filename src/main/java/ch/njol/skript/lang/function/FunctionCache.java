@@ -0,0 +1,161 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.function;
+
+import ch.njol.skript.registrations.Classes;
+import org.bukkit.entity.Entity;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the values a cached function returned for recently used arguments.
+ * The least recently used arguments are forgotten once the cache is full.
+ * Functions should only be cached if they return the same values whenever they're called with the same arguments,
+ * and don't change anything while running.
+ * <br>
+ * Returned values are {@link Classes#clone(Object) cloned} when they are stored and when they are used,
+ * so that callers changing them (e.g. adding enchantments to a returned item) don't change the cached values.
+ * Arguments are cloned as well when they are stored, so that changing them afterwards (e.g. the x-coordinate of a location)
+ * doesn't change the key they are remembered by.
+ * Entities (including players) are remembered by their UUID, so that the cache doesn't keep them from being unloaded.
+ */
+public final class FunctionCache {
+
+	/**
+	 * Stored instead of null for calls that didn't return anything.
+	 */
+	private static final Object[] NO_VALUE = new Object[0];
+
+	private final Map<Arguments, Object[]> values;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public FunctionCache(int size) {
+		assert size > 0 : size;
+		values = new LinkedHashMap<Arguments, Object[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Arguments, Object[]> eldest) {
+				return size() > size;
+			}
+		};
+	}
+
+	/**
+	 * @param arguments The evaluated arguments of a call, including default values.
+	 * @return A copy of the values previously returned for the arguments, {@link #NO_VALUE} if nothing was returned,
+	 * or null if the arguments aren't cached.
+	 */
+	@Nullable
+	Object[] get(Object[][] arguments) {
+		Object[] value;
+		synchronized (values) {
+			value = values.get(new Arguments(arguments, false));
+		}
+		if (value == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return value == NO_VALUE ? value : (Object[]) Classes.clone(value);
+	}
+
+	void put(Object[][] arguments, @Nullable Object[] value) {
+		// copy both, as the function and its callers are free to modify the arrays and their values afterwards
+		Arguments key = new Arguments(arguments, true);
+		Object[] stored = value == null || value.length == 0 ? NO_VALUE : (Object[]) Classes.clone(value);
+		synchronized (values) {
+			values.put(key, stored);
+		}
+	}
+
+	static boolean isNoValue(Object[] value) {
+		return value == NO_VALUE;
+	}
+
+	/**
+	 * Forgets all remembered values. The hit and miss counts are kept.
+	 */
+	public void clear() {
+		synchronized (values) {
+			values.clear();
+		}
+	}
+
+	/**
+	 * @return How many calls could use a remembered value.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return How many calls had to run the function.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	private static final class Arguments {
+
+		private final Object[][] arguments;
+		private final int hashCode;
+
+		/**
+		 * @param clone Whether the values of the arguments should be cloned, which is only necessary for keys that are stored.
+		 */
+		Arguments(Object[][] arguments, boolean clone) {
+			Object[][] copy = new Object[arguments.length][];
+			for (int i = 0; i < arguments.length; i++) {
+				copy[i] = arguments[i].clone();
+				for (int j = 0; j < copy[i].length; j++) {
+					Object value = copy[i][j];
+					if (value instanceof Entity) {
+						copy[i][j] = ((Entity) value).getUniqueId();
+					} else if (clone) {
+						copy[i][j] = Classes.clone(value);
+					}
+				}
+			}
+			this.arguments = copy;
+			this.hashCode = Arrays.deepHashCode(copy);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof Arguments))
+				return false;
+			Arguments other = (Arguments) object;
+			return hashCode == other.hashCode && Arrays.deepEquals(arguments, other.arguments);
+		}
+
+	}
+
+}
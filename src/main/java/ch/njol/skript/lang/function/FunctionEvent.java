@@ -20,7 +20,15 @@ package ch.njol.skript.lang.function;
 
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
+import org.eclipse.jdt.annotation.Nullable;
 
+import ch.njol.skript.effects.EffReturn;
+
+/**
+ * The event a function is executed with. Each call gets its own instance, which also acts as the call's frame:
+ * local variables are keyed by it and the value returned by the function is stored in it,
+ * so recursive and concurrent calls of the same function don't interfere with each other.
+ */
 public final class FunctionEvent<T> extends Event {
 	
 	// Bukkit stuff
@@ -28,6 +36,10 @@ public final class FunctionEvent<T> extends Event {
 	
 	private final Function<? extends T> function;
 	
+	private boolean returnValueSet = false;
+	@Nullable
+	private Object[] returnValue = null;
+	
 	public FunctionEvent(Function<? extends T> function) {
 		this.function = function;
 	}
@@ -36,6 +48,23 @@ public final class FunctionEvent<T> extends Event {
 		return function;
 	}
 	
+	/**
+	 * Should only be called by {@link EffReturn}.
+	 */
+	public void setReturnValue(@Nullable Object[] value) {
+		assert !returnValueSet;
+		returnValueSet = true;
+		returnValue = value;
+	}
+	
+	/**
+	 * @return The value returned by this call of the function, or null if nothing was returned (yet).
+	 */
+	@Nullable
+	public Object[] getReturnValue() {
+		return returnValue;
+	}
+	
 	@Override
 	public HandlerList getHandlers() {
 		return handlers;
@@ -21,6 +21,7 @@ package ch.njol.skript.lang.function;
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
 import ch.njol.skript.SkriptAddon;
+import ch.njol.skript.SkriptConfig;
 import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.ParseContext;
@@ -59,7 +60,7 @@ public abstract class Functions {
 	/**
 	 * Function namespaces.
 	 */
-	private static final Map<Namespace.Key, Namespace> namespaces = new HashMap<>();
+	private static volatile Map<Namespace.Key, Namespace> namespaces = new HashMap<>();
 
 	/**
 	 * Namespace of Java functions.
@@ -74,7 +75,25 @@ public abstract class Functions {
 	/**
 	 * Namespaces of functions that are globally available.
 	 */
-	private static final Map<String, Namespace> globalFunctions = new HashMap<>();
+	private static volatile Map<String, Namespace> globalFunctions = new HashMap<>();
+
+	/**
+	 * The function namespaces as they will be once the staged changes are published,
+	 *  or null if changes aren't being staged.
+	 * Scripts that are loaded while changes are staged register their signatures and functions here,
+	 *  so that the code that is still running keeps calling the functions of the scripts they replace.
+	 * @see #stageChanges(Collection)
+	 */
+	@Nullable
+	private static volatile Map<Namespace.Key, Namespace> stagedNamespaces;
+
+	/**
+	 * The namespaces of global functions as they will be once the staged changes are published,
+	 *  or null if changes aren't being staged.
+	 * @see #stagedNamespaces
+	 */
+	@Nullable
+	private static volatile Map<String, Namespace> stagedGlobalFunctions;
 
 	static boolean callFunctionEvents = false;
 
@@ -107,10 +126,25 @@ public abstract class Functions {
 	 */
 	@Nullable
 	public static Function<?> loadFunction(Script script, SectionNode node, Signature<?> signature) {
+		return loadFunction(script, node, signature, false);
+	}
+
+	/**
+	 * Loads a script function from given node.
+	 * @param script The script the function is declared in
+	 * @param node Section node.
+	 * @param signature The signature of the function. Use {@link Functions#parseSignature(String, String, String, String, boolean)}
+	 * to get a new signature instance and {@link Functions#registerSignature(Signature)} to register the signature
+	 * @param cached Whether the values returned by the function should be remembered for recently used arguments.
+	 * @return Script function, or null if something went wrong.
+	 * @see FunctionCache
+	 */
+	@Nullable
+	public static Function<?> loadFunction(Script script, SectionNode node, Signature<?> signature, boolean cached) {
 		String name = signature.name;
-		Namespace namespace = getScriptNamespace(script.getConfig().getFileName());
+		Namespace namespace = getLoadingNamespaces().get(new Namespace.Key(Namespace.Origin.SCRIPT, script.getConfig().getFileName()));
 		if (namespace == null) {
-			namespace = globalFunctions.get(name);
+			namespace = getLoadingGlobalFunctions().get(name);
 			if (namespace == null)
 				return null; // Probably duplicate signature; reported before
 		}
@@ -122,6 +156,8 @@ public abstract class Functions {
 				+ (c != null ? " :: " + (signature.isSingle() ? c.getName().getSingular() : c.getName().getPlural()) : "") + ":");
 
 		Function<?> f = new ScriptFunction<>(signature, script, node);
+		if (cached)
+			f.cache = new FunctionCache(Math.max(1, SkriptConfig.functionCacheSize.value()));
 
 		// Register the function for signature
 		namespace.addFunction(f);
@@ -173,9 +209,13 @@ public abstract class Functions {
 	 */
 	@Nullable
 	public static Signature<?> registerSignature(Signature<?> signature) {
+		Map<Namespace.Key, Namespace> namespaces = getLoadingNamespaces();
+		Map<String, Namespace> globalFunctions = getLoadingGlobalFunctions();
+		Namespace.Key namespaceKey = new Namespace.Key(Namespace.Origin.SCRIPT, signature.script);
+
 		// Ensure there are no duplicate functions
 		if (signature.local) {
-			Namespace namespace = getScriptNamespace(signature.script);
+			Namespace namespace = namespaces.get(namespaceKey);
 			if (namespace != null && namespace.getSignature(signature.name, true) != null)
 				return signError("A local function named '" + signature.name + "' already exists in the script");
 		} else {
@@ -191,7 +231,6 @@ public abstract class Functions {
 			}
 		}
 
-		Namespace.Key namespaceKey = new Namespace.Key(Namespace.Origin.SCRIPT, signature.script);
 		Namespace namespace = namespaces.computeIfAbsent(namespaceKey, k -> new Namespace());
 		namespace.addSignature(signature);
 		if (!signature.local)
@@ -315,7 +354,7 @@ public abstract class Functions {
 	 */
 	@Nullable
 	public static Signature<?> getGlobalSignature(String name) {
-		Namespace namespace = globalFunctions.get(name);
+		Namespace namespace = getLoadingGlobalFunctions().get(name);
 		if (namespace == null)
 			return null;
 		return namespace.getSignature(name, false);
@@ -332,7 +371,7 @@ public abstract class Functions {
 	public static Signature<?> getLocalSignature(String name, String script) {
 		Namespace namespace = null;
 		Signature<?> signature = null;
-		namespace = getScriptNamespace(script);
+		namespace = getLoadingNamespaces().get(new Namespace.Key(Namespace.Origin.SCRIPT, script));
 		if (namespace != null)
 			signature = namespace.getSignature(name);
 		return signature;
@@ -392,25 +431,136 @@ public abstract class Functions {
 	}
 
 	public static void unregisterFunction(Signature<?> signature) {
+		// the namespace may be part of the staged changes too, so the signature is only removed from it once both were updated
+		Namespace namespace = unregisterNamespace(signature, namespaces, globalFunctions);
+		Map<Namespace.Key, Namespace> stagedNamespaces = Functions.stagedNamespaces;
+		Map<String, Namespace> stagedGlobalFunctions = Functions.stagedGlobalFunctions;
+		if (stagedNamespaces != null && stagedGlobalFunctions != null) {
+			Namespace stagedNamespace = unregisterNamespace(signature, stagedNamespaces, stagedGlobalFunctions);
+			if (namespace == null)
+				namespace = stagedNamespace;
+		}
+		if (namespace != null)
+			namespace.removeSignature(signature);
+
+		for (FunctionReference<?> ref : signature.calls) {
+			if (!signature.script.equals(ref.script))
+				toValidate.add(ref);
+		}
+	}
+
+	/**
+	 * Removes the references to the namespace of the given signature that only exist because of the signature.
+	 * @return The namespace containing the signature, or null if it isn't one of the given namespaces.
+	 */
+	@Nullable
+	private static Namespace unregisterNamespace(Signature<?> signature, Map<Namespace.Key, Namespace> namespaces, Map<String, Namespace> globalFunctions) {
 		Iterator<Namespace> namespaceIterator = namespaces.values().iterator();
 		while (namespaceIterator.hasNext()) {
 			Namespace namespace = namespaceIterator.next();
-			if (namespace.removeSignature(signature)) {
-				if (!signature.local)
-					globalFunctions.remove(signature.getName());
+			if (namespace.getSignature(signature.getName(), signature.local) != signature)
+				continue;
+
+			// the name may already belong to a function that is replacing this one
+			if (!signature.local && globalFunctions.get(signature.getName()) == namespace)
+				globalFunctions.remove(signature.getName());
+
+			// remove the namespace if it is about to be empty
+			if (namespace.getSignatures().size() == 1)
+				namespaceIterator.remove();
+
+			return namespace;
+		}
+		return null;
+	}
+
+	/**
+	 * Starts staging the changes to the registered functions, e.g. when scripts are being reloaded.
+	 * Until {@link #publishChanges()} is called, the signatures and functions of scripts that are loaded
+	 *  are only visible to other scripts that are loaded, while running code keeps calling the functions that were registered before.
+	 * Can be called again while changes are already being staged, to replace further scripts.
+	 * @param replacedScripts The names of the scripts that are being replaced.
+	 *  Their functions are hidden from the scripts that are loaded, so that they can be registered again.
+	 */
+	public static void stageChanges(Collection<String> replacedScripts) {
+		Map<Namespace.Key, Namespace> stagedNamespaces = Functions.stagedNamespaces;
+		Map<String, Namespace> stagedGlobalFunctions = Functions.stagedGlobalFunctions;
+		if (stagedNamespaces == null || stagedGlobalFunctions == null) {
+			stagedNamespaces = new HashMap<>(namespaces);
+			stagedGlobalFunctions = new HashMap<>(globalFunctions);
+			Functions.stagedNamespaces = stagedNamespaces;
+			Functions.stagedGlobalFunctions = stagedGlobalFunctions;
+		}
+		for (String script : replacedScripts) {
+			Namespace namespace = stagedNamespaces.remove(new Namespace.Key(Namespace.Origin.SCRIPT, script));
+			if (namespace != null)
+				stagedGlobalFunctions.values().removeIf(globalNamespace -> globalNamespace == namespace);
+		}
+	}
+
+	/**
+	 * Replaces the registered functions with the staged ones at once, and revalidates the calls of functions that changed.
+	 * Does nothing if changes aren't being staged.
+	 * @see #stageChanges(Collection)
+	 */
+	public static void publishChanges() {
+		Map<Namespace.Key, Namespace> stagedNamespaces = Functions.stagedNamespaces;
+		Map<String, Namespace> stagedGlobalFunctions = Functions.stagedGlobalFunctions;
+		if (stagedNamespaces == null || stagedGlobalFunctions == null)
+			return;
+		namespaces = stagedNamespaces;
+		globalFunctions = stagedGlobalFunctions;
+		Functions.stagedNamespaces = null;
+		Functions.stagedGlobalFunctions = null;
+
+		validateFunctions();
+		// cached functions may call functions that were just replaced
+		clearFunctionCaches();
+	}
 
-				// remove the namespace if it is empty
-				if (namespace.getSignatures().isEmpty())
-					namespaceIterator.remove();
+	/**
+	 * @return The function namespaces that scripts which are being loaded register their functions in.
+	 */
+	private static Map<Namespace.Key, Namespace> getLoadingNamespaces() {
+		Map<Namespace.Key, Namespace> stagedNamespaces = Functions.stagedNamespaces;
+		return stagedNamespaces != null ? stagedNamespaces : namespaces;
+	}
 
-				break;
+	/**
+	 * @return The namespaces of global functions that scripts which are being loaded register their functions in.
+	 */
+	private static Map<String, Namespace> getLoadingGlobalFunctions() {
+		Map<String, Namespace> stagedGlobalFunctions = Functions.stagedGlobalFunctions;
+		return stagedGlobalFunctions != null ? stagedGlobalFunctions : globalFunctions;
+	}
+
+	/**
+	 * Forgets the values remembered by all cached functions.
+	 * Called whenever functions are loaded or unloaded, as cached functions may call functions that changed.
+	 */
+	public static void clearFunctionCaches() {
+		for (Namespace namespace : namespaces.values()) {
+			for (Function<?> function : namespace.getFunctions()) {
+				FunctionCache cache = function.getCache();
+				if (cache != null)
+					cache.clear();
 			}
 		}
+	}
 
-		for (FunctionReference<?> ref : signature.calls) {
-			if (!signature.script.equals(ref.script))
-				toValidate.add(ref);
+	/**
+	 * @return All functions that are currently registered and cache their return values.
+	 * @see Function#getCache()
+	 */
+	public static List<Function<?>> getCachedFunctions() {
+		List<Function<?>> functions = new ArrayList<>();
+		for (Namespace namespace : namespaces.values()) {
+			for (Function<?> function : namespace.getFunctions()) {
+				if (function.getCache() != null)
+					functions.add(function);
+			}
 		}
+		return functions;
 	}
 
 	public static void validateFunctions() {
@@ -22,75 +22,144 @@ import org.skriptlang.skript.lang.script.Script;
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.njol.skript.ScriptLoader;
+import ch.njol.skript.Skript;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.effects.EffReturn;
 import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerContext;
+import ch.njol.skript.lang.TriggerItem;
 import ch.njol.skript.lang.util.SimpleEvent;
+import ch.njol.skript.timings.ExecutionProfiler;
 import ch.njol.skript.variables.Variables;
 
+import java.util.List;
+
 /**
  * @author Peter Güttinger
  */
 public class ScriptFunction<T> extends Function<T> {
 	
+	/**
+	 * The number of list parameter elements per parameter whose variable names are cached.
+	 */
+	private static final int CACHED_ELEMENT_NAMES = 16;
+	
 	private final Trigger trigger;
 	
+	/**
+	 * The body of this function if it is a single return statement, e.g. a formula.
+	 * Such functions evaluate the returned expression directly instead of running their trigger.
+	 */
+	@Nullable
+	private final EffReturn singleReturn;
+	
+	/**
+	 * Variable names of list parameter elements ({@code name::1}, {@code name::2}, ...) per parameter,
+	 * filled on demand so that calls with lists don't build the same names over and over again.
+	 */
+	private final String[][] elementNames;
+	
+	/**
+	 * The event of the call whose trigger was started last, only used by {@link #setReturnValue(Object[])}.
+	 */
+	@Nullable
+	private FunctionEvent<?> currentEvent;
+	
 	public ScriptFunction(Signature<T> sign, Script script, SectionNode node) {
 		super(sign);
 		
+		elementNames = new String[sign.getParameters().length][];
+		
 		Functions.currentFunction = this;
 		try {
+			List<TriggerItem> items = ScriptLoader.loadItems(node);
 			trigger = new Trigger(
 				script,
 				"function " + sign.getName(),
 				new SimpleEvent(),
-				ScriptLoader.loadItems(node)
+				items
 			);
 			trigger.setLineNumber(node.getLine());
+			singleReturn = items.size() == 1 && items.get(0) instanceof EffReturn ? (EffReturn) items.get(0) : null;
 		} finally {
 			Functions.currentFunction = null;
 		}
 	}
 	
-	private boolean returnValueSet = false;
-	@Nullable
-	private T[] returnValue = null;
-	
 	/**
-	 * Should only be called by {@link EffReturn}.
+	 * Sets the return value of the call of this function whose trigger was started last.
+	 * @deprecated Return values are stored in the {@link FunctionEvent} of each call,
+	 *  use {@link FunctionEvent#setReturnValue(Object[])} instead, which also works for nested and concurrent calls.
 	 */
-	public final void setReturnValue(final @Nullable T[] value) {
-		assert !returnValueSet;
-		returnValueSet = true;
-		returnValue = value;
+	@Deprecated
+	public final void setReturnValue(@Nullable T[] value) {
+		FunctionEvent<?> event = currentEvent;
+		if (event != null)
+			event.setReturnValue(value);
 	}
 	
 	// REMIND track possible types of local variables (including undefined variables) (consider functions, commands, and EffChange) - maybe make a general interface for this purpose
 	// REM: use patterns, e.g. {_a%b%} is like "a.*", and thus subsequent {_axyz} may be set and of that type.
 	@Override
 	@Nullable
+	@SuppressWarnings("unchecked")
 	public T[] execute(final FunctionEvent<?> e, final Object[][] params) {
 		Parameter<?>[] parameters = getSignature().getParameters();
+		TriggerContext context = TriggerContext.get(e);
 		for (int i = 0; i < parameters.length; i++) {
 			Parameter<?> p = parameters[i];
 			Object[] val = params[i];
 			if (p.single && val.length > 0) {
-				Variables.setVariable(p.name, val[0], e, true);
+				Variables.setLocalVariable(p.name, val[0], context);
 			} else {
 				for (int j = 0; j < val.length; j++) {
-					Variables.setVariable(p.name + "::" + (j + 1), val[j], e, true);
+					Variables.setLocalVariable(getElementName(i, j), val[j], context);
 				}
 			}
 		}
 		
-		trigger.execute(e);
-		return returnValue;
+		EffReturn singleReturn = this.singleReturn;
+		if (singleReturn != null && !Skript.debug() && !ExecutionProfiler.isProfiling()) {
+			// same as running the trigger, minus the walk through it (which debug output and profiling rely on)
+			try {
+				return (T[]) singleReturn.getReturnedExpression().getArray(e);
+			} catch (Throwable throwable) {
+				if (!TriggerItem.handleError(throwable, singleReturn, singleReturn))
+					throw throwable;
+			} finally {
+				Variables.removeLocals(e);
+			}
+			return null;
+		}
+		
+		FunctionEvent<?> previousEvent = currentEvent;
+		currentEvent = e;
+		try {
+			trigger.execute(e);
+		} finally {
+			currentEvent = previousEvent;
+		}
+		// the return value is stored in the call's own event, so nested and concurrent calls can't overwrite it
+		return (T[]) e.getReturnValue();
+	}
+	
+	private String getElementName(int parameter, int index) {
+		if (index >= CACHED_ELEMENT_NAMES)
+			return getSignature().getParameters()[parameter].name + "::" + (index + 1);
+		String[] names = elementNames[parameter];
+		if (names == null)
+			elementNames[parameter] = names = new String[CACHED_ELEMENT_NAMES];
+		String name = names[index];
+		if (name == null) // racing threads at worst build the same name twice
+			names[index] = name = getSignature().getParameters()[parameter].name + "::" + (index + 1);
+		return name;
 	}
 
+	/**
+	 * Return values are stored in the {@link FunctionEvent} of each call, so there is nothing to reset.
+	 */
 	@Override
 	public boolean resetReturnValue() {
-		returnValue = null;
-		returnValueSet = false;
 		return true;
 	}
 
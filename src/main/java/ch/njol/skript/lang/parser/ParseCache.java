@@ -0,0 +1,332 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.config.Node;
+import ch.njol.skript.lang.SyntaxElement;
+import ch.njol.skript.lang.SyntaxElementInfo;
+import org.bukkit.Bukkit;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A persistent cache of the syntax elements that statements were parsed as.
+ * <br>
+ * When a script is loaded again without any changes, and neither the registered syntax nor any other script changed,
+ *  the syntax element recorded for a line is tried before searching through all registered statements.
+ * If the recorded syntax element does not match anymore, a full parse is done instead.
+ * Other scripts are taken into account because what they define (e.g. functions) can change what a line is parsed as.
+ * <br>
+ * The cache is only used when {@link SkriptConfig#enableScriptCaching} is enabled.
+ */
+public final class ParseCache {
+
+	private ParseCache() { }
+
+	/**
+	 * Increment this whenever the format of the cache file changes.
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	private static final String CACHE_FILE = "cache" + File.separator + "parse-cache.dat";
+
+	/**
+	 * The recorded parse decisions of a single script file.
+	 */
+	private static final class ScriptEntry {
+
+		/**
+		 * The hash of the script's contents at the time the decisions were recorded.
+		 */
+		private final String hash;
+
+		/**
+		 * The {@link #getEnvironment() environment} the decisions were recorded in.
+		 */
+		private volatile String environment;
+
+		/**
+		 * Maps line numbers to the class name of the statement that was parsed from that line.
+		 */
+		private final Map<Integer, String> decisions = new ConcurrentHashMap<>();
+
+		private ScriptEntry(String hash, String environment) {
+			this.hash = hash;
+			this.environment = environment;
+		}
+
+	}
+
+	private static final Map<File, ScriptEntry> entries = new ConcurrentHashMap<>();
+
+	private static boolean loaded = false;
+	private static volatile boolean modified = false;
+
+	/**
+	 * The fingerprint of the contents of all known scripts, or null if it has to be calculated again.
+	 * @see #getEnvironment()
+	 */
+	@Nullable
+	private static volatile String environment;
+
+	/**
+	 * @return Whether parse decisions should be recorded and replayed.
+	 */
+	public static boolean isEnabled() {
+		return SkriptConfig.enableScriptCaching.value();
+	}
+
+	/**
+	 * Prepares the cache for the loading of a script.
+	 * If the contents of the script changed since the last time it was loaded, the previously
+	 *  recorded parse decisions of the script are discarded.
+	 * @param file The file of the script that is about to be loaded.
+	 * @param content The raw contents of the file.
+	 */
+	public static void prepare(File file, byte[] content) {
+		ensureLoaded();
+		String hash = hash(content);
+		ScriptEntry entry = entries.get(file);
+		if (entry == null || !entry.hash.equals(hash)) {
+			entries.put(file, new ScriptEntry(hash, ""));
+			modified = true;
+		}
+		// scripts may have been added, changed or deleted since the environment was calculated
+		environment = null;
+	}
+
+	/**
+	 * Looks up the syntax element that the current node was parsed as last time.
+	 * @param infos The syntax elements the current node may be parsed as.
+	 * @return The syntax element that was recorded for the current node,
+	 *  or null if there is none or if it is not part of the provided syntax elements.
+	 */
+	@Nullable
+	public static <T extends SyntaxElement> SyntaxElementInfo<? extends T> getDecision(Collection<? extends SyntaxElementInfo<? extends T>> infos) {
+		if (!isEnabled())
+			return null;
+		ScriptEntry entry = getCurrentEntry();
+		Node node = ParserInstance.get().getNode();
+		if (entry == null || node == null || !entry.environment.equals(getEnvironment()))
+			return null;
+		String elementClass = entry.decisions.get(node.getLine());
+		if (elementClass == null)
+			return null;
+		for (SyntaxElementInfo<? extends T> info : infos) {
+			if (info.getElementClass().getName().equals(elementClass))
+				return info;
+		}
+		return null;
+	}
+
+	/**
+	 * Records what the current node has been parsed as.
+	 * @param element The syntax element parsed from the current node,
+	 *  or null if the current node could not be parsed.
+	 */
+	public static void record(@Nullable SyntaxElement element) {
+		if (!isEnabled())
+			return;
+		ScriptEntry entry = getCurrentEntry();
+		Node node = ParserInstance.get().getNode();
+		if (entry == null || node == null)
+			return;
+		String environment = getEnvironment();
+		if (!entry.environment.equals(environment)) {
+			// the decisions recorded in another environment might not be what a full parse results in now
+			synchronized (entry) {
+				if (!entry.environment.equals(environment)) {
+					entry.decisions.clear();
+					entry.environment = environment;
+					modified = true;
+				}
+			}
+		}
+		if (element == null) {
+			if (entry.decisions.remove(node.getLine()) != null)
+				modified = true;
+		} else {
+			String elementClass = element.getClass().getName();
+			if (!elementClass.equals(entry.decisions.put(node.getLine(), elementClass)))
+				modified = true;
+		}
+	}
+
+	@Nullable
+	private static ScriptEntry getCurrentEntry() {
+		ParserInstance parser = ParserInstance.get();
+		if (!parser.isActive())
+			return null;
+		File file = parser.getCurrentScript().getConfig().getFile();
+		return file != null ? entries.get(file) : null;
+	}
+
+	/**
+	 * Writes the recorded parse decisions to the cache file, if they changed since they were last written.
+	 */
+	public static synchronized void save() {
+		if (!modified)
+			return;
+		modified = false;
+
+		File cacheFile = new File(Skript.getInstance().getDataFolder(), CACHE_FILE);
+		File tempFile = new File(cacheFile.getPath() + ".temp");
+		File parent = cacheFile.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			Skript.error("Could not create the directory " + parent);
+			return;
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(getFingerprint());
+			Map<File, ScriptEntry> entries = ParseCache.entries.entrySet().stream()
+				.filter(entry -> entry.getKey().exists())
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			out.writeInt(entries.size());
+			for (Map.Entry<File, ScriptEntry> entry : entries.entrySet()) {
+				ScriptEntry scriptEntry = entry.getValue();
+				Map<Integer, String> decisions = scriptEntry.decisions;
+				out.writeUTF(entry.getKey().getPath());
+				out.writeUTF(scriptEntry.hash);
+				out.writeUTF(scriptEntry.environment);
+				out.writeInt(decisions.size());
+				for (Map.Entry<Integer, String> decision : decisions.entrySet()) {
+					out.writeInt(decision.getKey());
+					out.writeUTF(decision.getValue());
+				}
+			}
+		} catch (IOException e) {
+			Skript.exception(e, "Could not save the parse cache");
+			return;
+		}
+
+		try {
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			Skript.exception(e, "Could not save the parse cache");
+		}
+	}
+
+	/**
+	 * Reads the cache file, discarding it if the registered syntax changed since it was written.
+	 */
+	private static synchronized void ensureLoaded() {
+		if (loaded)
+			return;
+		loaded = true;
+
+		File cacheFile = new File(Skript.getInstance().getDataFolder(), CACHE_FILE);
+		if (!cacheFile.exists())
+			return;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+			if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(getFingerprint())) {
+				modified = true; // rewrite the outdated cache on the next save
+				return;
+			}
+			int entryCount = in.readInt();
+			for (int i = 0; i < entryCount; i++) {
+				File file = new File(in.readUTF());
+				ScriptEntry entry = new ScriptEntry(in.readUTF(), in.readUTF());
+				int decisionCount = in.readInt();
+				for (int j = 0; j < decisionCount; j++)
+					entry.decisions.put(in.readInt(), in.readUTF());
+				entries.put(file, entry);
+			}
+		} catch (IOException e) {
+			entries.clear();
+			modified = true;
+			Skript.warning("The parse cache could not be read and will be rebuilt: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * The environment identifies the contents of all known scripts that still exist.
+	 * Recorded decisions are only valid for the exact same environment, as a script can define something
+	 *  (e.g. a function) that changes what the lines of another script are parsed as.
+	 */
+	private static String getEnvironment() {
+		String environment = ParseCache.environment;
+		if (environment == null) {
+			StringBuilder builder = new StringBuilder();
+			entries.entrySet().stream()
+				.filter(entry -> entry.getKey().exists())
+				.map(entry -> entry.getKey().getPath() + ' ' + entry.getValue().hash)
+				.sorted()
+				.forEach(script -> builder.append(script).append('\n'));
+			environment = hash(builder.toString().getBytes(StandardCharsets.UTF_8));
+			ParseCache.environment = environment;
+		}
+		return environment;
+	}
+
+	@Nullable
+	private static String fingerprint;
+
+	/**
+	 * The fingerprint identifies the registered syntax.
+	 * Recorded decisions are only valid for the exact same Skript version, addons and server version.
+	 */
+	private static String getFingerprint() {
+		if (fingerprint == null) {
+			StringBuilder builder = new StringBuilder()
+				.append(Skript.getVersion()).append('\n')
+				.append(Bukkit.getVersion()).append('\n');
+			Skript.getAddons().stream()
+				.map(addon -> addon.getName() + ' ' + addon.plugin.getDescription().getVersion())
+				.sorted()
+				.forEach(addon -> builder.append(addon).append('\n'));
+			builder.append(Skript.getStatements().size()).append('\n');
+			fingerprint = hash(builder.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		return fingerprint;
+	}
+
+	private static String hash(byte[] content) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		StringBuilder builder = new StringBuilder(64);
+		for (byte b : digest.digest(content))
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,228 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.config.Node;
+import ch.njol.skript.lang.SyntaxElementInfo;
+import ch.njol.skript.util.FileUtils;
+import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.structure.Structure;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records where time is spent while scripts are being parsed.
+ * <br>
+ * While profiling, the wall time spent on every script, structure and line is recorded,
+ *  as well as how often every {@link SyntaxElementInfo} was tried, how often it matched,
+ *  and how much time was spent in attempts that did not match.
+ * Once profiling is stopped, the results are written to a CSV file in the <tt>profiles</tt> folder.
+ * <br>
+ * Times are inclusive, i.e. the time of a section line or of a syntax element also contains the time
+ *  spent on the lines and syntax elements nested in it.
+ * <br>
+ * The profiler is used for script loads while {@link SkriptConfig#enableParseProfiler} is enabled.
+ */
+public final class ParseProfiler {
+
+	private ParseProfiler() { }
+
+	private static final String PROFILES_FOLDER = "profiles";
+
+	/**
+	 * The accumulated measurements of a single entry of the report.
+	 */
+	private static final class Entry {
+
+		private final String kind;
+		private final String name;
+
+		private final LongAdder attempts = new LongAdder();
+		private final LongAdder successes = new LongAdder();
+		private final LongAdder totalTime = new LongAdder();
+		private final LongAdder failedTime = new LongAdder();
+
+		private Entry(String kind, String name) {
+			this.kind = kind;
+			this.name = name;
+		}
+
+		private void add(boolean success, long time) {
+			attempts.increment();
+			totalTime.add(time);
+			if (success) {
+				successes.increment();
+			} else {
+				failedTime.add(time);
+			}
+		}
+
+	}
+
+	private static final Map<String, Entry> scripts = new ConcurrentHashMap<>();
+	private static final Map<String, Entry> structures = new ConcurrentHashMap<>();
+	private static final Map<String, Entry> lines = new ConcurrentHashMap<>();
+	private static final Map<SyntaxElementInfo<?>, Entry> elements = new ConcurrentHashMap<>();
+
+	private static final LongAdder cacheHits = new LongAdder();
+	private static final LongAdder cacheMisses = new LongAdder();
+
+	private static volatile boolean profiling = false;
+	private static long startTime;
+
+	/**
+	 * @return Whether the profiler is enabled in the config.
+	 */
+	public static boolean isEnabled() {
+		return SkriptConfig.enableParseProfiler.value();
+	}
+
+	/**
+	 * @return Whether measurements are currently being recorded.
+	 */
+	public static boolean isProfiling() {
+		return profiling;
+	}
+
+	/**
+	 * Starts recording measurements, discarding the measurements of any previous run.
+	 * @return Whether profiling was started, false if it was already running.
+	 */
+	public static synchronized boolean startProfiling() {
+		if (profiling)
+			return false;
+		scripts.clear();
+		structures.clear();
+		lines.clear();
+		elements.clear();
+		cacheHits.reset();
+		cacheMisses.reset();
+		startTime = System.nanoTime();
+		profiling = true;
+		return true;
+	}
+
+	/**
+	 * Stops recording measurements and writes the report.
+	 * @return The report file, or null if profiling was not running or the report could not be written.
+	 */
+	@Nullable
+	public static synchronized File stopProfiling() {
+		if (!profiling)
+			return null;
+		profiling = false;
+		long wallTime = System.nanoTime() - startTime;
+
+		File folder = new File(Skript.getInstance().getDataFolder(), PROFILES_FOLDER);
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			Skript.error("Could not create the directory " + folder);
+			return null;
+		}
+		File file = new File(folder, "parse-" + FileUtils.getBackupSuffix() + ".csv");
+
+		List<Entry> entries = new ArrayList<>();
+		entries.addAll(scripts.values());
+		entries.addAll(structures.values());
+		entries.addAll(lines.values());
+		entries.addAll(elements.values());
+		entries.sort(Comparator.comparingLong((Entry entry) -> entry.totalTime.sum()).reversed());
+
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+			out.println("kind,name,attempts,successes,total ms,failed ms");
+			out.println("total," + escape("wall time") + ",1,1," + toMillis(wallTime) + ",0");
+			long hits = cacheHits.sum();
+			out.println("cache," + escape("parse cache hits") + "," + (hits + cacheMisses.sum()) + "," + hits + ",0,0");
+			for (Entry entry : entries) {
+				out.println(entry.kind + "," + escape(entry.name) + "," + entry.attempts.sum() + "," + entry.successes.sum() + ","
+					+ toMillis(entry.totalTime.sum()) + "," + toMillis(entry.failedTime.sum()));
+			}
+		} catch (IOException e) {
+			Skript.exception(e, "Could not write the parse profile");
+			return null;
+		}
+		return file;
+	}
+
+	/**
+	 * Records the time spent on a script.
+	 * As this is called for every loading stage of the script, the time accumulates.
+	 */
+	public static void recordScript(String fileName, long time) {
+		scripts.computeIfAbsent(fileName, name -> new Entry("script", name)).add(true, time);
+	}
+
+	/**
+	 * Records the time spent parsing or loading a structure, which is also added to the time of its script.
+	 * @param success Whether the structure was parsed or loaded successfully.
+	 */
+	public static void recordStructure(Node node, @Nullable Structure structure, boolean success, long time) {
+		String fileName = node.getConfig().getFileName();
+		String key = fileName + ":" + node.getLine();
+		structures.computeIfAbsent(key, k -> new Entry("structure", k + " " + (structure != null ? structure.getClass().getSimpleName() : node.getKey())))
+			.add(success, time);
+		recordScript(fileName, time);
+	}
+
+	/**
+	 * Records the time spent parsing a line of a trigger.
+	 * @param success Whether the line could be parsed.
+	 */
+	public static void recordLine(Node node, boolean success, long time) {
+		String key = node.getConfig().getFileName() + ":" + node.getLine();
+		lines.computeIfAbsent(key, k -> new Entry("line", k + " " + node.getKey())).add(success, time);
+	}
+
+	/**
+	 * Records an attempt to parse something as the given syntax element.
+	 * @param success Whether one of the syntax element's patterns matched.
+	 */
+	public static void recordAttempt(SyntaxElementInfo<?> info, boolean success, long time) {
+		elements.computeIfAbsent(info, i -> new Entry("syntax", i.getElementClass().getName())).add(success, time);
+	}
+
+	/**
+	 * Records whether a statement could be parsed using the decision stored in the {@link ParseCache}.
+	 */
+	public static void recordCacheLookup(boolean hit) {
+		(hit ? cacheHits : cacheMisses).increment();
+	}
+
+	private static String toMillis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	private static String escape(String value) {
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+}
@@ -22,6 +22,7 @@ import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.SkriptAPIException;
 import ch.njol.skript.config.Config;
 import ch.njol.skript.config.Node;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.SkriptParser;
@@ -68,6 +69,7 @@ public final class ParserInstance {
 		setCurrentStructure(null);
 		deleteCurrentEvent();
 		getCurrentSections().clear();
+		setAsync(false);
 		setNode(null);
 	}
 
@@ -356,6 +358,26 @@ public final class ParserInstance {
 		return hasDelayBefore;
 	}
 
+	// Async API
+
+	private boolean isAsync = false;
+
+	/**
+	 * Sets whether the code being parsed runs off the main server thread, i.e. in an async event.
+	 * While it does, only syntax elements annotated with {@link AsyncSafe} can be parsed.
+	 */
+	public void setAsync(boolean async) {
+		this.isAsync = async;
+	}
+
+	/**
+	 * @return whether the code being parsed runs off the main server thread.
+	 * @see #setAsync(boolean)
+	 */
+	public boolean isAsync() {
+		return isAsync;
+	}
+
 	// Miscellaneous
 
 	private final HandlerList handlers = new HandlerList();
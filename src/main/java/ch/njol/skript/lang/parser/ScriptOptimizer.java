@@ -0,0 +1,141 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import ch.njol.skript.expressions.arithmetic.ExprArithmetic;
+import ch.njol.skript.expressions.base.EventValueExpression;
+import ch.njol.skript.expressions.base.PropertyExpression;
+import ch.njol.skript.expressions.base.WrapperExpression;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.ExpressionList;
+import ch.njol.skript.lang.Literal;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.UnparsedLiteral;
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.lang.VariableString;
+import ch.njol.skript.lang.util.ConvertedExpression;
+import ch.njol.skript.lang.util.MemoizableExpression;
+import ch.njol.skript.sections.SecConditional;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simplifies code whose result is already known while it is being loaded.
+ * <br>
+ * Arithmetic between constants is calculated once when it is parsed (see {@link ExprArithmetic}),
+ *  and conditional sections whose conditions only compare constants are checked once when they have been loaded
+ *  (see {@link #optimize(List)}).
+ * Long chains of conditional sections that compare the same expression to different constants are turned into a lookup
+ *  (see {@link SecConditional#compileDispatch(List)}).
+ * How many of these were folded is reported once scripts have been loaded.
+ */
+public final class ScriptOptimizer {
+
+	private ScriptOptimizer() { }
+
+	private static final LongAdder foldedNodes = new LongAdder();
+
+	/**
+	 * Optimizes freshly loaded trigger items.
+	 * This is called by {@link ch.njol.skript.ScriptLoader#loadItems(ch.njol.skript.config.SectionNode)}
+	 *  once all items of a section have been loaded.
+	 * @param items The items of a section.
+	 */
+	public static void optimize(List<TriggerItem> items) {
+		for (TriggerItem item : items) {
+			if (item instanceof SecConditional && ((SecConditional) item).foldConditions())
+				recordFold();
+		}
+		for (int i = 0; i < items.size(); i++) {
+			TriggerItem item = items.get(i);
+			if (item instanceof SecConditional)
+				((SecConditional) item).compileDispatch(items.subList(i + 1, items.size()));
+		}
+	}
+
+	/**
+	 * An expression is constant if it always returns the same values, no matter the event it is evaluated with.
+	 * @param expression The expression to check.
+	 * @return Whether the given expression is known to be constant.
+	 */
+	public static boolean isConstant(Expression<?> expression) {
+		if (expression instanceof Literal) // 'or' lists return a random value
+			return !(expression instanceof UnparsedLiteral) && (expression.isSingle() || expression.getAnd());
+		if (expression instanceof VariableString)
+			return ((VariableString) expression).isSimple();
+		if (expression instanceof ExprArithmetic)
+			return ((ExprArithmetic<?, ?, ?>) expression).isConstant();
+		return false;
+	}
+
+	/**
+	 * Unlike {@link #isConstant(Expression)}, this also accepts 'or' lists of constants,
+	 *  as {@link Expression#getAll(org.bukkit.event.Event)} returns all of their values instead of a random one.
+	 * @param expression The expression to check.
+	 * @return Whether {@link Expression#getAll(org.bukkit.event.Event)} of the given expression always returns the same values.
+	 */
+	public static boolean hasConstantValues(Expression<?> expression) {
+		if (expression instanceof ExpressionList) {
+			for (Expression<?> child : ((ExpressionList<?>) expression).getExpressions()) {
+				if (!hasConstantValues(child))
+					return false;
+			}
+			return true;
+		}
+		if (expression instanceof Literal)
+			return !(expression instanceof UnparsedLiteral);
+		return isConstant(expression);
+	}
+
+	/**
+	 * An expression is side effect free if evaluating it doesn't change anything,
+	 *  and if evaluating it several times in a row returns the same values.
+	 * @param expression The expression to check.
+	 * @return Whether the given expression is known to be free of side effects.
+	 */
+	public static boolean isSideEffectFree(Expression<?> expression) {
+		if (isConstant(expression) || expression instanceof EventValueExpression)
+			return true;
+		if (expression instanceof Variable) // the name of the variable must not be calculated
+			return ((Variable<?>) expression).getName().isSimple();
+		if (expression instanceof ConvertedExpression)
+			return isSideEffectFree(expression.getSource());
+		if (expression instanceof MemoizableExpression && expression instanceof PropertyExpression)
+			return isSideEffectFree(((PropertyExpression<?, ?>) expression).getExpr());
+		if (expression instanceof MemoizableExpression && expression instanceof WrapperExpression)
+			return isSideEffectFree(((WrapperExpression<?>) expression).getExpr());
+		return false;
+	}
+
+	/**
+	 * Records that an expression or section has been folded.
+	 */
+	public static void recordFold() {
+		foldedNodes.increment();
+	}
+
+	/**
+	 * @return How many expressions and sections have been folded since the server was started.
+	 */
+	public static long getFoldedNodes() {
+		return foldedNodes.sum();
+	}
+
+}
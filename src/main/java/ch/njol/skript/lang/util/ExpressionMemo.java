@@ -0,0 +1,175 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.util;
+
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.expressions.base.EventValueExpression;
+import ch.njol.skript.expressions.base.PropertyExpression;
+import ch.njol.skript.expressions.base.WrapperExpression;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.Literal;
+import ch.njol.skript.registrations.Classes;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the values of {@link MemoizableExpression}s for the duration of a single trigger execution,
+ *  so that expressions like <code>player's location</code> that are used several times in a trigger
+ *  are only calculated once.
+ * <br>
+ * Expressions are remembered by a key that describes what they calculate (including their {@link MemoizableExpression#getMemoState() state}),
+ *  so equal expressions at different places of a trigger share their values.
+ * Only expressions whose sources are event values, literals or other memoizable expressions are remembered,
+ *  as the values of anything else (e.g. variables) may change during the execution.
+ * As almost any effect or function may change what the remembered values describe (e.g. by teleporting an entity),
+ *  the remembered values are discarded after every {@link ch.njol.skript.lang.Effect}, every function call,
+ *  whenever the execution is delayed (see {@link ch.njol.skript.effects.Delay#addDelayedEvent(Event)}),
+ *  and once the trigger has been executed. Values are thus only shared within a statement
+ *  and between the conditions and sections that lie between two effects.
+ * Remembered values are {@link Classes#clone(Object) cloned} when they are stored and whenever they are used,
+ *  so that callers changing a value (e.g. adding to the x-coordinate of a location) don't change it for the rest of the statement.
+ * Values are only remembered on the main thread.
+ */
+public final class ExpressionMemo {
+
+	private ExpressionMemo() { }
+
+	/**
+	 * The key of expressions that can't be memoized.
+	 */
+	static final Object NOT_MEMOIZABLE = new Object();
+
+	private static final Map<Event, Map<Object, Object[]>> MEMOS = new ConcurrentHashMap<>();
+
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+
+	public static boolean isEnabled() {
+		return SkriptConfig.memoizeExpressions.value();
+	}
+
+	/**
+	 * Starts remembering values for a trigger execution with the given event.
+	 * @return Whether a new memo was started, in which case {@link #stop(Event)} has to be called once the execution is done.
+	 */
+	public static boolean start(Event event) {
+		if (!isEnabled() || !Bukkit.isPrimaryThread())
+			return false;
+		return MEMOS.putIfAbsent(event, new ConcurrentHashMap<>()) == null;
+	}
+
+	/**
+	 * Discards the memo of the given event.
+	 */
+	public static void stop(Event event) {
+		MEMOS.remove(event);
+	}
+
+	/**
+	 * Discards the values remembered for the given event, e.g. because they may have been changed.
+	 */
+	public static void invalidate(Event event) {
+		if (MEMOS.isEmpty())
+			return;
+		Map<Object, Object[]> memo = MEMOS.get(event);
+		if (memo != null)
+			memo.clear();
+	}
+
+	/**
+	 * Gets the values of an expression, using the remembered values if there are any.
+	 * This is used by {@link SimpleExpression} for {@link MemoizableExpression}s.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static <T> T[] get(Event event, SimpleExpression<T> expression) {
+		Map<Object, Object[]> memo = MEMOS.isEmpty() ? null : MEMOS.get(event);
+		if (memo == null || !Bukkit.isPrimaryThread())
+			return expression.get(event);
+
+		Object key = expression.memoKey;
+		if (key == null) {
+			key = getKey(expression);
+			expression.memoKey = key;
+		}
+		if (key == NOT_MEMOIZABLE)
+			return expression.get(event);
+
+		T[] values = (T[]) memo.get(key);
+		if (values != null) {
+			hits.increment();
+			return (T[]) Classes.clone(values);
+		}
+		misses.increment();
+		values = expression.get(event);
+		if (values != null)
+			memo.put(key, (Object[]) Classes.clone(values));
+		return values;
+	}
+
+	/**
+	 * @return A key describing what the given expression calculates, or {@link #NOT_MEMOIZABLE}.
+	 */
+	private static Object getKey(Expression<?> expression) {
+		Expression<?> source;
+		if (expression instanceof EventValueExpression) {
+			return "event-" + expression.getClass().getName() + ":" + expression.getReturnType().getName()
+				+ "@" + expression.getTime() + (expression.isSingle() ? "" : "s");
+		} else if (expression instanceof Literal) {
+			if (!expression.isSingle() && !expression.getAnd()) // 'or' lists return a random value
+				return NOT_MEMOIZABLE;
+			return "literal:" + expression.getReturnType().getName() + ":" + expression.toString(null, false);
+		} else if (expression instanceof ConvertedExpression) {
+			source = expression.getSource();
+		} else if (expression instanceof MemoizableExpression && expression instanceof PropertyExpression) {
+			source = ((PropertyExpression<?, ?>) expression).getExpr();
+		} else if (expression instanceof MemoizableExpression && expression instanceof WrapperExpression) {
+			source = ((WrapperExpression<?>) expression).getExpr();
+		} else {
+			return NOT_MEMOIZABLE;
+		}
+
+		Object sourceKey = getKey(source);
+		if (sourceKey == NOT_MEMOIZABLE)
+			return NOT_MEMOIZABLE;
+		Object state = expression instanceof MemoizableExpression ? ((MemoizableExpression<?>) expression).getMemoState() : null;
+		return expression.getClass().getName() + (state == null ? "" : "[" + state + "]") + ":"
+			+ expression.getReturnType().getName() + "@" + expression.getTime() + "(" + sourceKey + ")";
+	}
+
+	/**
+	 * @return How often remembered values were used.
+	 */
+	public static long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return How often values had to be calculated because they weren't remembered.
+	 */
+	public static long getMisses() {
+		return misses.sum();
+	}
+
+}
@@ -0,0 +1,47 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.util;
+
+import ch.njol.skript.lang.Expression;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * An expression that has no side effects and whose values don't change within a tick
+ *  unless something is changed, e.g. the location of an entity or the block it is looking at.
+ * If {@link ch.njol.skript.SkriptConfig#memoizeExpressions} is enabled and the expression is a {@link SimpleExpression},
+ *  its values are only calculated once per trigger execution (see {@link ExpressionMemo}).
+ * <br>
+ * Only expressions whose source is a {@link ch.njol.skript.expressions.base.PropertyExpression#getExpr() property}
+ *  or {@link ch.njol.skript.expressions.base.WrapperExpression#getExpr() wrapped} expression should implement this.
+ *
+ * @param <T> The return type of the expression.
+ */
+public interface MemoizableExpression<T> extends Expression<T> {
+
+	/**
+	 * Describes everything about this expression that its values depend on, apart from its class, its time and its source,
+	 *  e.g. the pattern it was matched with or its parse marks.
+	 * Two expressions of the same class with equal states and sources are treated as the same expression,
+	 *  so anything that may make them calculate different values has to be part of the state.
+	 * @return The state of this expression, or null if its values only depend on its source.
+	 */
+	@Nullable
+	Object getMemoState();
+
+}
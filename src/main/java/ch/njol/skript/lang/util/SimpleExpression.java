@@ -49,6 +49,12 @@ public abstract class SimpleExpression<T> implements Expression<T> {
 
 	private int time = 0;
 
+	/**
+	 * The key of this expression in the {@link ExpressionMemo}, determined when it is first needed.
+	 */
+	@Nullable
+	Object memoKey;
+
 	protected SimpleExpression() {}
 
 	@Override
@@ -65,7 +71,7 @@ public abstract class SimpleExpression<T> implements Expression<T> {
 	@Override
 	@SuppressWarnings("unchecked")
 	public T[] getAll(Event event) {
-		T[] values = get(event);
+		T[] values = getValues(event);
 		if (values == null) {
 			T[] emptyArray = (T[]) Array.newInstance(getReturnType(), 0);
 			assert emptyArray != null;
@@ -91,7 +97,7 @@ public abstract class SimpleExpression<T> implements Expression<T> {
 	@Override
 	@SuppressWarnings("unchecked")
 	public final T[] getArray(Event event) {
-		T[] values = get(event);
+		T[] values = getValues(event);
 		if (values == null) {
 			return (T[]) Array.newInstance(getReturnType(), 0);
 		}
@@ -130,6 +136,13 @@ public abstract class SimpleExpression<T> implements Expression<T> {
 		return valueArray;
 	}
 
+	@Nullable
+	private T[] getValues(Event event) {
+		if (this instanceof MemoizableExpression)
+			return ExpressionMemo.get(event, this);
+		return get(event);
+	}
+
 	/**
 	 * This is the internal method to get an expression's values.<br>
 	 * To get the expression's value from the outside use {@link #getSingle(Event)} or {@link #getArray(Event)}.
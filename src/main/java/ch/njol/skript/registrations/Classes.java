@@ -29,12 +29,13 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import ch.njol.skript.command.Commands;
@@ -79,11 +80,12 @@ public abstract class Classes {
 	private Classes() {}
 	
 	@Nullable
-	private static ClassInfo<?>[] classInfos = null;
+	private static volatile ClassInfo<?>[] classInfos = null;
 	private final static List<ClassInfo<?>> tempClassInfos = new ArrayList<>();
-	private final static HashMap<Class<?>, ClassInfo<?>> exactClassInfos = new HashMap<>();
-	private final static HashMap<Class<?>, ClassInfo<?>> superClassInfos = new HashMap<>();
-	private final static HashMap<String, ClassInfo<?>> classInfosByCodeName = new HashMap<>();
+	// concurrent maps as these may be read from other threads (e.g. async triggers or script loading) at any time
+	private final static Map<Class<?>, ClassInfo<?>> exactClassInfos = new ConcurrentHashMap<>();
+	private final static Map<Class<?>, ClassInfo<?>> superClassInfos = new ConcurrentHashMap<>();
+	private final static Map<String, ClassInfo<?>> classInfosByCodeName = new ConcurrentHashMap<>();
 	
 	/**
 	 * @param info info about the class to register
@@ -279,6 +281,8 @@ public abstract class Classes {
 	 */
 	@Nullable
 	public static ClassInfo<?> getClassInfoNoError(final @Nullable String codeName) {
+		if (codeName == null)
+			return null;
 		return classInfosByCodeName.get(codeName);
 	}
 	
@@ -293,6 +297,8 @@ public abstract class Classes {
 	@SuppressWarnings("unchecked")
 	@Nullable
 	public static <T> ClassInfo<T> getExactClassInfo(final @Nullable Class<T> c) {
+		if (c == null)
+			return null;
 		return (ClassInfo<T>) exactClassInfos.get(c);
 	}
 	
@@ -311,8 +317,7 @@ public abstract class Classes {
 			return (ClassInfo<? super T>) i;
 		for (final ClassInfo<?> ci : getClassInfos()) {
 			if (ci.getC().isAssignableFrom(c)) {
-				if (!Skript.isAcceptRegistrations())
-					superClassInfos.put(c, ci);
+				superClassInfos.putIfAbsent(c, ci);
 				return (ClassInfo<? super T>) ci;
 			}
 		}
@@ -41,6 +41,7 @@ import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.Trigger;
 import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.util.ExpressionMemo;
 import ch.njol.skript.registrations.EventValues;
 import ch.njol.skript.util.Direction;
 import ch.njol.skript.util.Getter;
@@ -175,6 +176,7 @@ public class EffSecSpawn extends EffectSection {
 			}
 		}
 
+		ExpressionMemo.invalidate(event);
 		return super.walk(event, false);
 	}
 
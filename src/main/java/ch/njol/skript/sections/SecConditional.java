@@ -20,6 +20,8 @@ package ch.njol.skript.sections;
 
 import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.conditions.CondCompare;
 import ch.njol.skript.config.Node;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.doc.Description;
@@ -27,12 +29,15 @@ import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
 import ch.njol.skript.events.bukkit.SkriptParseEvent;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Condition;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.Section;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.TriggerItem;
 import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.lang.parser.ScriptOptimizer;
+import ch.njol.skript.lang.util.ContextlessEvent;
 import ch.njol.skript.patterns.PatternCompiler;
 import ch.njol.skript.patterns.SkriptPattern;
 import ch.njol.skript.util.Patterns;
@@ -40,11 +45,14 @@ import ch.njol.util.Kleenean;
 import com.google.common.collect.Iterables;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.comparator.Relation;
 import org.skriptlang.skript.lang.structure.Structure;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @Name("Conditionals")
 @Description({
@@ -73,6 +81,7 @@ import java.util.List;
 })
 @Since("1.0")
 @SuppressWarnings("NotNullFieldNotInitialized")
+@AsyncSafe
 public class SecConditional extends Section {
 
 	private static final SkriptPattern THEN_PATTERN = PatternCompiler.compile("then [run]");
@@ -103,6 +112,14 @@ public class SecConditional extends Section {
 	private boolean parseIfPassed;
 	private boolean multiline;
 
+	// The result of the conditions, if they are constant and have been checked while loading
+	@Nullable
+	private Boolean constantResult;
+
+	// The lookup of the section to run, if this is the first section of a chain that compares one expression to constants
+	@Nullable
+	private Dispatch dispatch;
+
 	private Kleenean hasDelayAfter;
 
 	@Override
@@ -281,9 +298,25 @@ public class SecConditional extends Section {
 	@Nullable
 	@Override
 	protected TriggerItem walk(Event event) {
+		if (dispatch != null) {
+			Object value = dispatch.subject.getSingle(event);
+			Map<Object, SecConditional> branches = dispatch.getBranches(value);
+			if (branches != null) { // otherwise, the value can't be looked up and the conditions are checked one by one
+				SecConditional sectionToRun = branches.get(Dispatch.getKey(value));
+				if (sectionToRun == null)
+					sectionToRun = dispatch.elseSection;
+				TriggerItem skippedNext = getSkippedNext();
+				if (sectionToRun == null)
+					return skippedNext;
+				if (sectionToRun.last != null)
+					sectionToRun.last.setNext(skippedNext);
+				return sectionToRun.first != null ? sectionToRun.first : skippedNext;
+			}
+		}
+
 		if (type == ConditionalType.THEN || (parseIf && !parseIfPassed)) {
 			return getNormalNext();
-		} else if (parseIf || checkConditions(event)) {
+		} else if (parseIf || (constantResult != null ? constantResult : checkConditions(event))) {
 			// if this is a multiline if, we need to run the "then" section instead
 			SecConditional sectionToRun = multiline ? (SecConditional) getNormalNext() : this;
 			TriggerItem skippedNext = getSkippedNext();
@@ -295,6 +328,99 @@ public class SecConditional extends Section {
 		}
 	}
 
+	/**
+	 * Checks the conditions of this section once if they are all constant,
+	 *  so that they don't have to be checked every time this section is executed.
+	 * @return Whether the conditions were constant and have been checked.
+	 * @see ch.njol.skript.lang.parser.ScriptOptimizer
+	 */
+	public boolean foldConditions() {
+		if (parseIf || constantResult != null || conditions.isEmpty())
+			return false;
+		for (Condition condition : conditions) {
+			if (!condition.isConstant())
+				return false;
+		}
+		constantResult = checkConditions(ContextlessEvent.get());
+		return true;
+	}
+
+	/**
+	 * If this is the first section of a chain of 'if' and 'else if' sections which all check whether the same side effect free
+	 *  expression is equal to different strings or integers (or 'or' lists of them), the section to run is looked up in a table
+	 *  instead of checking the conditions one by one. The expression is then only evaluated once.
+	 * If the value of the expression isn't a string or an integer, the conditions are checked one by one as usual,
+	 *  as other values may be equal to the constants without having the same hash code.
+	 * @param followingItems The items following this section.
+	 * @return Whether a lookup table was created for this chain.
+	 * @see ch.njol.skript.lang.parser.ScriptOptimizer
+	 */
+	public boolean compileDispatch(List<TriggerItem> followingItems) {
+		if (type != ConditionalType.IF || dispatch != null)
+			return false;
+
+		List<SecConditional> chain = new ArrayList<>();
+		chain.add(this);
+		SecConditional elseSection = null;
+		for (TriggerItem item : followingItems) {
+			if (!(item instanceof SecConditional))
+				break;
+			SecConditional conditional = (SecConditional) item;
+			if (conditional.type == ConditionalType.ELSE_IF) {
+				chain.add(conditional);
+			} else {
+				if (conditional.type == ConditionalType.ELSE)
+					elseSection = conditional;
+				break;
+			}
+		}
+		if (chain.size() < Dispatch.MINIMUM_BRANCHES)
+			return false;
+
+		Expression<?> subject = null;
+		Map<Object, SecConditional> strings = new HashMap<>();
+		Map<Object, SecConditional> integers = new HashMap<>();
+		for (SecConditional conditional : chain) {
+			if (conditional.multiline || conditional.parseIf || conditional.constantResult != null || conditional.conditions.size() != 1)
+				return false;
+			Condition condition = conditional.conditions.get(0);
+			if (!(condition instanceof CondCompare) || condition.isNegated())
+				return false;
+			CondCompare compare = (CondCompare) condition;
+			if (compare.getRelation() != Relation.EQUAL || compare.getThird() != null)
+				return false;
+
+			Expression<?> first = compare.getFirst();
+			if (subject == null) {
+				if (!first.isSingle() || !ScriptOptimizer.isSideEffectFree(first))
+					return false;
+				subject = first;
+			} else if (first.getClass() != subject.getClass() || first.getTime() != subject.getTime()
+					|| !first.toString(null, false).equals(subject.toString(null, false))) {
+				return false;
+			}
+
+			Expression<?> second = compare.getSecond();
+			// 'or' lists match if any of their values does, so each of their values is looked up
+			if (!ScriptOptimizer.hasConstantValues(second) || (!second.isSingle() && second.getAnd()))
+				return false;
+			for (Object constant : second.getAll(ContextlessEvent.get())) {
+				if (constant instanceof String) {
+					strings.putIfAbsent(constant, conditional); // the first matching section is run
+				} else if (Dispatch.isInteger(constant)) {
+					integers.putIfAbsent(((Number) constant).longValue(), conditional);
+				} else {
+					return false;
+				}
+			}
+		}
+		if (!strings.isEmpty() && !integers.isEmpty())
+			return false;
+
+		dispatch = new Dispatch(subject, strings, integers, elseSection);
+		return true;
+	}
+
 	@Nullable
 	private TriggerItem getSkippedNext() {
 		TriggerItem next = getNormalNext();
@@ -405,4 +531,64 @@ public class SecConditional extends Section {
 		return null;
 	}
 
+	private static final class Dispatch {
+
+		private static final int MINIMUM_BRANCHES = 3;
+
+		private final Expression<?> subject;
+		private final Map<Object, SecConditional> strings;
+		private final Map<Object, SecConditional> caseInsensitiveStrings = new HashMap<>();
+		private final Map<Object, SecConditional> integers;
+		@Nullable
+		private final SecConditional elseSection;
+
+		private Dispatch(Expression<?> subject, Map<Object, SecConditional> strings, Map<Object, SecConditional> integers, @Nullable SecConditional elseSection) {
+			this.subject = subject;
+			this.strings = strings;
+			this.integers = integers;
+			this.elseSection = elseSection;
+			strings.forEach((string, section) -> caseInsensitiveStrings.putIfAbsent(toCaseInsensitiveKey((String) string), section));
+		}
+
+		/**
+		 * @return The branches to look the value up in, or null if the value can't be looked up.
+		 */
+		@Nullable
+		private Map<Object, SecConditional> getBranches(@Nullable Object value) {
+			if (value == null) // no condition can be true
+				return integers.isEmpty() ? strings : integers;
+			if (value instanceof String && integers.isEmpty())
+				return SkriptConfig.caseSensitive.value() ? strings : caseInsensitiveStrings;
+			if (isInteger(value) && strings.isEmpty())
+				return integers;
+			return null;
+		}
+
+		@Nullable
+		private static Object getKey(@Nullable Object value) {
+			if (value instanceof String)
+				return SkriptConfig.caseSensitive.value() ? value : toCaseInsensitiveKey((String) value);
+			if (value instanceof Number)
+				return ((Number) value).longValue();
+			return null;
+		}
+
+		/**
+		 * @return Whether the value is a number that is compared exactly to other integers.
+		 */
+		private static boolean isInteger(Object value) {
+			return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+		}
+
+		/**
+		 * Two strings have the same key if and only if they are equal according to {@link String#equalsIgnoreCase(String)}.
+		 */
+		private static String toCaseInsensitiveKey(String string) {
+			StringBuilder key = new StringBuilder(string.length());
+			string.codePoints().forEach(codePoint -> key.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint))));
+			return key.toString();
+		}
+
+	}
+
 }
@@ -25,9 +25,11 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.LoopSection;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.TriggerContext;
 import ch.njol.skript.lang.TriggerItem;
 import ch.njol.skript.lang.Variable;
 import ch.njol.skript.lang.util.ContainerExpression;
@@ -40,8 +42,6 @@ import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 @Name("Loop")
 @Description({
@@ -61,7 +61,12 @@ import java.util.WeakHashMap;
 	"<b>List Variables</b>",
 	"When looping list variables, you can also use <code>loop-index</code> in addition to <code>loop-value</code> inside " +
 		"the loop. <code>loop-value</code> is the value of the currently looped variable, and <code>loop-index</code> " +
-		"is the last part of the variable's name (the part where the list variable has its asterisk *)."
+		"is the last part of the variable's name (the part where the list variable has its asterisk *).",
+	"",
+	"<b>Budgeted Loops</b>",
+	"A <code>budgeted loop</code> pauses once it has run for the 'budgeted loop time slice' set in the config, " +
+		"and continues in the next tick, just like after a <code>wait</code>. " +
+		"This allows looping a lot of values without freezing the server, but the event may have passed by the time the loop finishes."
 })
 @Examples({
 	"loop all players:",
@@ -77,24 +82,28 @@ import java.util.WeakHashMap;
 	"",
 	"loop {Coins::*}:",
 	"\tset {Coins::%loop-index%} to loop-value + 5 # Same as \"add 5 to {Coins::%loop-index%}\" where loop-index is the uuid of " +
-		"the player and loop-value is the actually coins value such as 200"
+		"the player and loop-value is the actually coins value such as 200",
+	"",
+	"budgeted loop all blocks in radius 50 around player:",
+	"\tif loop-block is diamond ore:",
+	"\t\tset loop-block to stone"
 })
-@Since("1.0")
+@Since("1.0, 2.8.3 (budgeted loops)")
+@AsyncSafe
 public class SecLoop extends LoopSection {
 
 	static {
-		Skript.registerSection(SecLoop.class, "loop %objects%");
+		Skript.registerSection(SecLoop.class, "[:budgeted] loop %objects%");
 	}
 
 	@SuppressWarnings("NotNullFieldNotInitialized")
 	private Expression<?> expr;
 
-	private final transient Map<Event, Object> current = new WeakHashMap<>();
-	private final transient Map<Event, Iterator<?>> currentIter = new WeakHashMap<>();
-
 	@Nullable
 	private TriggerItem actualNext;
 
+	private boolean budgeted;
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public boolean init(Expression<?>[] exprs,
@@ -105,7 +114,7 @@ public class SecLoop extends LoopSection {
 						List<TriggerItem> triggerItems) {
 		expr = LiteralUtils.defendExpression(exprs[0]);
 		if (!LiteralUtils.canInitSafely(expr)) {
-			Skript.error("Can't understand this loop: '" + parseResult.expr.substring(5) + "'");
+			Skript.error("Can't understand this loop: '" + parseResult.expr.substring(parseResult.expr.indexOf("loop") + 5) + "'");
 			return false;
 		}
 
@@ -121,6 +130,13 @@ public class SecLoop extends LoopSection {
 			return false;
 		}
 
+		budgeted = parseResult.hasTag("budgeted");
+		if (budgeted && getParser().isAsync()) {
+			Skript.error("Budgeted loops can't be used in async events, as they continue on the main thread");
+			return false;
+		}
+		if (budgeted && getParser().getHasDelayBefore().isFalse())
+			getParser().setHasDelayBefore(Kleenean.UNKNOWN);
 		loadOptionalCode(sectionNode);
 		super.setNext(this);
 
@@ -130,35 +146,41 @@ public class SecLoop extends LoopSection {
 	@Override
 	@Nullable
 	protected TriggerItem walk(Event event) {
-		Iterator<?> iter = currentIter.get(event);
+		if (budgeted && yieldIfOverBudget(event))
+			return null;
+		TriggerContext.LoopState state = getLoopState(event);
+		Iterator<?> iter = state == null ? null : state.getIterator();
 		if (iter == null) {
 			iter = expr instanceof Variable ? ((Variable<?>) expr).variablesIterator(event) : expr.iterator(event);
 			if (iter != null) {
-				if (iter.hasNext())
-					currentIter.put(event, iter);
-				else
+				if (iter.hasNext()) {
+					state = TriggerContext.get(event).getLoopState(this);
+					state.setIterator(iter);
+				} else {
 					iter = null;
+				}
 			}
 		}
-		if (iter == null || !iter.hasNext()) {
+		if (state == null || iter == null || !iter.hasNext()) {
 			exit(event);
 			debug(event, false);
 			return actualNext;
 		} else {
-			current.put(event, iter.next());
-			currentLoopCounter.put(event, (currentLoopCounter.getOrDefault(event, 0L)) + 1);
+			state.setCurrent(iter.next());
+			state.increaseCounter();
 			return walk(event, true);
 		}
 	}
 
 	@Override
 	public String toString(@Nullable Event event, boolean debug) {
-		return "loop " + expr.toString(event, debug);
+		return (budgeted ? "budgeted " : "") + "loop " + expr.toString(event, debug);
 	}
 
 	@Nullable
 	public Object getCurrent(Event event) {
-		return current.get(event);
+		TriggerContext.LoopState state = getLoopState(event);
+		return state == null ? null : state.getCurrent();
 	}
 
 	public Expression<?> getLoopedExpression() {
@@ -177,11 +199,4 @@ public class SecLoop extends LoopSection {
 		return actualNext;
 	}
 
-	@Override
-	public void exit(Event event) {
-		current.remove(event);
-		currentIter.remove(event);
-		super.exit(event);
-	}
-
 }
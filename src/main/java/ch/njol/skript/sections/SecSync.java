@@ -0,0 +1,169 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.sections;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.doc.Description;
+import ch.njol.skript.doc.Examples;
+import ch.njol.skript.doc.Name;
+import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.Section;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.TriggerContext;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.util.Task;
+import ch.njol.util.Kleenean;
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.List;
+
+@Name("Sync")
+@Description({
+	"Events prefixed with 'async' run off the main server thread once the event has passed, " +
+		"so that heavy work like filtering chat messages or processing data doesn't slow down the server. " +
+		"They start after all other triggers of the event with the same priority have run, " +
+		"and several async triggers of the same event run at the same time, each with its own local variables. " +
+		"Only code that is known to be safe to run off the main thread can be used in them, " +
+		"e.g. conditions, loops, variables, and calculations with text and numbers. " +
+		"Only variables can be changed in them, and budgeted loops can't be used.",
+	"Everything else, including function calls, has to be put in a sync section. " +
+		"The code of a sync section runs on the main thread, while the async event waits for it to finish. " +
+		"Sync sections can't contain delays, and code in them can't stop or continue loops outside of them."
+})
+@Examples({
+	"async on chat:",
+	"\tset {_words::*} to message split at \" \"",
+	"\tloop {_words::*}:",
+	"\t\tif {blocked words::*} contains loop-value:",
+	"\t\t\tsync:",
+	"\t\t\t\tsend \"Please don't use that word!\" to player",
+	"\t\t\tstop"
+})
+@Since("2.8.3")
+@AsyncSafe
+public class SecSync extends Section {
+
+	static {
+		Skript.registerSection(SecSync.class, "sync");
+	}
+
+	/**
+	 * Walked to once the code of this section has finished, including when a condition of it fails.
+	 * Walking stops there, so that the code after this section doesn't run on the main thread.
+	 */
+	private final TriggerItem end = new TriggerItem() {
+		@Override
+		protected boolean run(Event event) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		@Nullable
+		protected TriggerItem walk(Event event) {
+			reachedEnd = true;
+			return null;
+		}
+
+		@Override
+		public String toString(@Nullable Event event, boolean debug) {
+			return "end of sync section";
+		}
+	};
+
+	/**
+	 * Whether the last execution of this section's code reached its end. Only accessed on the main thread.
+	 */
+	private boolean reachedEnd;
+
+	@Nullable
+	private TriggerItem actualNext;
+
+	@Override
+	public boolean init(Expression<?>[] exprs,
+						int matchedPattern,
+						Kleenean isDelayed,
+						ParseResult parseResult,
+						SectionNode sectionNode,
+						List<TriggerItem> triggerItems) {
+		ParserInstance parser = getParser();
+		if (!parser.isAsync()) {
+			Skript.error("A sync section can only be used in async events");
+			return false;
+		}
+
+		parser.setAsync(false);
+		parser.setHasDelayBefore(Kleenean.FALSE);
+		try {
+			loadCode(sectionNode);
+		} finally {
+			parser.setAsync(true);
+		}
+		boolean delayed = !parser.getHasDelayBefore().isFalse();
+		parser.setHasDelayBefore(isDelayed);
+		if (delayed) {
+			Skript.error("A sync section can't contain delays");
+			return false;
+		}
+
+		super.setNext(end);
+		return true;
+	}
+
+	@Override
+	@Nullable
+	protected TriggerItem walk(Event event) {
+		debug(event, true);
+		TriggerItem first = this.first;
+		if (first == null)
+			return actualNext;
+		if (!Skript.getInstance().isEnabled()) // the main thread won't run the code anymore
+			return null;
+		// the main thread continues this execution, so it has to use its context, which is only bound on this thread
+		TriggerContext context = TriggerContext.get(event);
+		Boolean completed = Task.callSync(() -> {
+			reachedEnd = false;
+			TriggerContext.runIsolated(event, context, () -> TriggerItem.walk(first, event));
+			return reachedEnd;
+		});
+		// if the code was stopped, the rest of the trigger is too
+		return Boolean.TRUE.equals(completed) ? actualNext : null;
+	}
+
+	@Override
+	public SecSync setNext(@Nullable TriggerItem next) {
+		actualNext = next;
+		return this;
+	}
+
+	@Nullable
+	public TriggerItem getActualNext() {
+		return actualNext;
+	}
+
+	@Override
+	public String toString(@Nullable Event event, boolean debug) {
+		return "sync";
+	}
+
+}
@@ -24,10 +24,12 @@ import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.AsyncSafe;
 import ch.njol.skript.lang.Condition;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.LoopSection;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.TriggerContext;
 import ch.njol.skript.lang.TriggerItem;
 import ch.njol.util.Kleenean;
 import org.bukkit.event.Event;
@@ -38,7 +40,11 @@ import java.util.Map;
 import java.util.WeakHashMap;
 
 @Name("While Loop")
-@Description("While Loop sections are loops that will just keep repeating as long as a condition is met.")
+@Description({
+	"While Loop sections are loops that will just keep repeating as long as a condition is met.",
+	"A <code>budgeted while</code> loop pauses once it has run for the 'budgeted loop time slice' set in the config, " +
+		"and continues in the next tick, just like after a <code>wait</code>."
+})
 @Examples({
 	"while size of all players < 5:",
 	"\tsend \"More players are needed to begin the adventure\" to all players",
@@ -54,12 +60,17 @@ import java.util.WeakHashMap;
 	"while player is online:",
 	"\tgive player 1 dirt",
 	"\twait 1 second # without using a delay effect the server will crash",
+	"",
+	"budgeted while {_queue::*} is set: # pauses until the next tick whenever it runs for too long",
+	"\tset {_next} to first element of {_queue::*}",
+	"\tremove {_next} from {_queue::*}",
 })
-@Since("2.0, 2.6 (do while)")
+@Since("2.0, 2.6 (do while), 2.8.3 (budgeted while)")
+@AsyncSafe
 public class SecWhile extends LoopSection {
 
 	static {
-		Skript.registerSection(SecWhile.class, "[(:do)] while <.+>");
+		Skript.registerSection(SecWhile.class, "[:budgeted] [(:do)] while <.+>");
 	}
 
 	@SuppressWarnings("NotNullFieldNotInitialized")
@@ -69,7 +80,8 @@ public class SecWhile extends LoopSection {
 	private TriggerItem actualNext;
 
 	private boolean doWhile;
-	private boolean ranDoWhile = false;
+
+	private boolean budgeted;
 
 	@Override
 	public boolean init(Expression<?>[] exprs,
@@ -85,6 +97,13 @@ public class SecWhile extends LoopSection {
 			return false;
 
 		doWhile = parseResult.hasTag("do");
+		budgeted = parseResult.hasTag("budgeted");
+		if (budgeted && getParser().isAsync()) {
+			Skript.error("Budgeted loops can't be used in async events, as they continue on the main thread");
+			return false;
+		}
+		if (budgeted && getParser().getHasDelayBefore().isFalse())
+			getParser().setHasDelayBefore(Kleenean.UNKNOWN);
 		loadOptionalCode(sectionNode);
 		super.setNext(this);
 		return true;
@@ -93,9 +112,13 @@ public class SecWhile extends LoopSection {
 	@Nullable
 	@Override
 	protected TriggerItem walk(Event event) {
-		if ((doWhile && !ranDoWhile) || condition.check(event)) {
-			ranDoWhile = true;
-			currentLoopCounter.put(event, (currentLoopCounter.getOrDefault(event, 0L)) + 1);
+		if (budgeted && yieldIfOverBudget(event))
+			return null;
+		TriggerContext.LoopState state = getLoopState(event);
+		if ((doWhile && state == null) || condition.check(event)) {
+			if (state == null)
+				state = TriggerContext.get(event).getLoopState(this);
+			state.increaseCounter();
 			return walk(event, true);
 		} else {
 			exit(event);
@@ -117,13 +140,7 @@ public class SecWhile extends LoopSection {
 
 	@Override
 	public String toString(@Nullable Event event, boolean debug) {
-		return (doWhile ? "do " : "") + "while " + condition.toString(event, debug);
-	}
-
-	@Override
-	public void exit(Event event) {
-		ranDoWhile = false;
-		super.exit(event);
+		return (budgeted ? "budgeted " : "") + (doWhile ? "do " : "") + "while " + condition.toString(event, debug);
 	}
 
 }
@@ -37,7 +37,7 @@ public class StructEvent extends Structure {
 
 	static {
 		Skript.registerStructure(StructEvent.class,
-				"[on] <.+> [with priority (:(lowest|low|normal|high|highest|monitor))]");
+				"[[:async] on] <.+> [with priority (:(lowest|low|normal|high|highest|monitor))]");
 	}
 
 	private SkriptEvent event;
@@ -51,8 +51,13 @@ public class StructEvent extends Structure {
 		// ensure there's no leftover data from previous parses
 		data.clear();
 
-		if (!parseResult.tags.isEmpty())
-			data.priority = EventPriority.valueOf(parseResult.tags.get(0).toUpperCase(Locale.ENGLISH));
+		for (String tag : parseResult.tags) {
+			if (tag.equals("async")) {
+				data.async = true;
+			} else {
+				data.priority = EventPriority.valueOf(tag.toUpperCase(Locale.ENGLISH));
+			}
+		}
 
 		event = SkriptEvent.parse(expr, entryContainer.getSource(), null);
 
@@ -112,6 +117,8 @@ public class StructEvent extends Structure {
 		@Nullable
 		private EventPriority priority;
 
+		private boolean async;
+
 		public EventData(ParserInstance parserInstance) {
 			super(parserInstance);
 		}
@@ -121,11 +128,19 @@ public class StructEvent extends Structure {
 			return priority;
 		}
 
+		/**
+		 * @return whether the event's code should run off the main server thread.
+		 */
+		public boolean isAsync() {
+			return async;
+		}
+
 		/**
 		 * Clears all event-specific data from this instance.
 		 */
 		public void clear() {
 			priority = null;
+			async = false;
 		}
 
 	}
@@ -26,6 +26,8 @@ import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.function.Function;
+import ch.njol.skript.lang.function.FunctionCache;
 import ch.njol.skript.lang.function.FunctionEvent;
 import ch.njol.skript.lang.function.Functions;
 import ch.njol.skript.lang.function.Signature;
@@ -43,7 +45,10 @@ import java.util.regex.Pattern;
 @Description({
 	"Functions are structures that can be executed with arguments/parameters to run code.",
 	"They can also return a value to the trigger that is executing the function.",
-	"Note that local functions come before global functions execution"
+	"Note that local functions come before global functions execution",
+	"Cached functions remember the values they returned for recently used arguments, and return them again instead of running when called with the same arguments.",
+	"Only cache functions that always return the same values for the same arguments and don't change anything, like formulas or lookup tables.",
+	"How many arguments are remembered can be changed with the 'function cache size' option in the config."
 })
 @Examples({
 	"function sayMessage(message: text):",
@@ -53,30 +58,37 @@ import java.util.regex.Pattern;
 	"\treturn {_amount} of apple",
 	"",
 	"function getPoints(p: player) returns number:",
-	"\treturn {points::%{_p}%}"
+	"\treturn {points::%{_p}%}",
+	"",
+	"cached function levelToXp(level: number) :: number:",
+	"\treturn {_level} ^ 2 + 6 * {_level}"
 })
-@Since("2.2, 2.7 (local functions)")
+@Since("2.2, 2.7 (local functions), 2.8.3 (cached functions)")
 public class StructFunction extends Structure {
 
 	public static final Priority PRIORITY = new Priority(400);
 
 	private static final Pattern SIGNATURE_PATTERN =
-			Pattern.compile("^(?:local )?function (" + Functions.functionNamePattern + ")\\((.*?)\\)(?:\\s*(?:::| returns )\\s*(.+))?$");
+			Pattern.compile("^(?:local )?(?:cached )?function (" + Functions.functionNamePattern + ")\\((.*?)\\)(?:\\s*(?:::| returns )\\s*(.+))?$");
 	private static final AtomicBoolean VALIDATE_FUNCTIONS = new AtomicBoolean();
 
 	static {
 		Skript.registerStructure(StructFunction.class,
-			"[:local] function <.+>"
+			"[:local] [:cached] function <.+>"
 		);
 	}
 
 	@Nullable
 	private Signature<?> signature;
 	private boolean local;
+	private boolean cached;
+	@Nullable
+	private Function<?> function;
 
 	@Override
 	public boolean init(Literal<?>[] literals, int matchedPattern, ParseResult parseResult, EntryContainer entryContainer) {
 		local = parseResult.hasTag("local");
+		cached = parseResult.hasTag("cached");
 		return true;
 	}
 
@@ -110,7 +122,7 @@ public class StructFunction extends Structure {
 		parser.setCurrentEvent((local ? "local " : "") + "function", FunctionEvent.class);
 
 		assert signature != null;
-		Functions.loadFunction(parser.getCurrentScript(), getEntryContainer().getSource(), signature);
+		function = Functions.loadFunction(parser.getCurrentScript(), getEntryContainer().getSource(), signature, cached);
 
 		parser.deleteCurrentEvent();
 
@@ -124,6 +136,8 @@ public class StructFunction extends Structure {
 		if (VALIDATE_FUNCTIONS.get()) {
 			VALIDATE_FUNCTIONS.set(false);
 			Functions.validateFunctions();
+			// cached functions may call functions that were just (re)loaded
+			Functions.clearFunctionCaches();
 		}
 		return true;
 	}
@@ -131,7 +145,13 @@ public class StructFunction extends Structure {
 	@Override
 	public void unload() {
 		assert signature != null;
+		FunctionCache cache = function != null ? function.getCache() : null;
+		if (cache != null && Skript.logHigh())
+			Skript.info("Cached function " + signature.getName() + " returned remembered values " + cache.getHits()
+				+ " times and ran " + cache.getMisses() + " times");
 		Functions.unregisterFunction(signature);
+		Functions.clearFunctionCaches();
+		function = null;
 		VALIDATE_FUNCTIONS.set(true);
 	}
 
@@ -142,7 +162,7 @@ public class StructFunction extends Structure {
 
 	@Override
 	public String toString(@Nullable Event event, boolean debug) {
-		return (local ? "local " : "") + "function";
+		return (local ? "local " : "") + (cached ? "cached " : "") + "function";
 	}
 
 }
@@ -38,12 +38,13 @@ import org.eclipse.jdt.annotation.Nullable;
 import java.util.List;
 
 @Name("Parse Section")
-@Description("Parse code inside this section and use 'parse logs' to grab any logs from it.")
+@Description("Parse code inside this section and use 'parse logs' to grab any logs from it. "
+	+ "With 'async parse', the code is parsed as if it were in an async event.")
 @NoDoc
 public class SecParse extends Section {
 
 	static {
-		Skript.registerSection(SecParse.class, "parse");
+		Skript.registerSection(SecParse.class, "[:async] parse");
 	}
 
 	@Nullable
@@ -60,7 +61,14 @@ public class SecParse extends Section {
 		RetainingLogHandler handler = SkriptLogger.startRetainingLog();
 		// we need to do this before loadCode because loadCode will add this section to the current sections
 		boolean inParseSection = getParser().isCurrentSection(SecParse.class);
-		loadCode(sectionNode);
+		boolean wasAsync = getParser().isAsync();
+		if (parseResult.hasTag("async"))
+			getParser().setAsync(true);
+		try {
+			loadCode(sectionNode);
+		} finally {
+			getParser().setAsync(wasAsync);
+		}
 		if (!inParseSection) {
 			// only store logs if we're not in another parse section.
 			// this way you can access the parse logs of the outermost parse section
@@ -0,0 +1,321 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.timings;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.util.FileUtils;
+import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.script.Script;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how much time is spent executing triggers, functions and lines of scripts.
+ * Unlike {@link SkriptTimings}, this doesn't depend on the server.
+ * <br>
+ * Every execution records into a call tree, which contains a node for every trigger and line
+ *  for each path it was executed through. Functions are triggers named <tt>function name</tt>.
+ * A call tree is only bound to a thread while the thread executes something, and is reused by other threads afterwards,
+ *  so that short-lived threads (e.g. a virtual thread for every asynchronous task) don't each leave a call tree behind.
+ * Once profiling is stopped, all call trees are merged and written to the <tt>profiles</tt> folder:
+ * <ul>
+ *     <li>a <tt>.txt</tt> file with the self time of every path in microseconds, in the collapsed stack format
+ *     used by flame graph tools,</li>
+ *     <li>a <tt>.csv</tt> file with the invocations, cumulative time and self time of every trigger and line.</li>
+ * </ul>
+ * Profiling is started and stopped with <tt>/skript profile start|stop</tt>.
+ */
+public final class ExecutionProfiler {
+
+	private ExecutionProfiler() { }
+
+	private static final String PROFILES_FOLDER = "profiles";
+
+	/**
+	 * A node of a call tree, i.e. a trigger or line executed through a certain path.
+	 * Its counters are only written by the thread the tree is bound to.
+	 */
+	private static final class Node {
+
+		private final Map<TriggerItem, Node> children = new ConcurrentHashMap<>();
+
+		private long invocations;
+		private long totalTime;
+		private long childTime;
+
+	}
+
+	/**
+	 * A call tree, bound to a single thread while it executes something. Obtained from {@link #enter(TriggerItem)} and passed back to {@link #exit(Recorder)},
+	 *  so that frames entered before profiling was restarted aren't mixed up with new ones.
+	 */
+	public static final class Recorder {
+
+		private final int generation;
+		private final Node root = new Node();
+
+		private Node[] stack = new Node[16];
+		private long[] starts = new long[16];
+		private int depth;
+
+		private Recorder(int generation) {
+			this.generation = generation;
+			stack[0] = root;
+		}
+
+		private void enter(TriggerItem item) {
+			Node parent = stack[depth];
+			Node node = parent.children.get(item);
+			if (node == null)
+				node = parent.children.computeIfAbsent(item, key -> new Node());
+			if (++depth == stack.length) {
+				stack = Arrays.copyOf(stack, depth * 2);
+				starts = Arrays.copyOf(starts, depth * 2);
+			}
+			stack[depth] = node;
+			starts[depth] = System.nanoTime();
+		}
+
+		private void exit() {
+			if (depth == 0) // unbalanced, should not happen
+				return;
+			long time = System.nanoTime() - starts[depth];
+			Node node = stack[depth];
+			stack[depth--] = null;
+			node.invocations++;
+			node.totalTime += time;
+			stack[depth].childTime += time;
+		}
+
+	}
+
+	private static final ThreadLocal<Recorder> RECORDERS = new ThreadLocal<>();
+	private static final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+	/**
+	 * Recorders that aren't bound to a thread, as their last execution is done.
+	 */
+	private static final Queue<Recorder> idleRecorders = new ConcurrentLinkedQueue<>();
+
+	private static volatile boolean profiling = false;
+	private static volatile int generation = 0;
+	private static long startTime;
+
+	/**
+	 * @return Whether executions are currently being measured.
+	 */
+	public static boolean isProfiling() {
+		return profiling;
+	}
+
+	/**
+	 * Starts measuring executions, discarding the measurements of any previous run.
+	 * @return Whether profiling was started, false if it was already running.
+	 */
+	public static synchronized boolean startProfiling() {
+		if (profiling)
+			return false;
+		recorders.clear();
+		idleRecorders.clear();
+		generation++;
+		startTime = System.nanoTime();
+		profiling = true;
+		return true;
+	}
+
+	/**
+	 * Marks the start of the execution of a trigger or line on the current thread.
+	 * @return The recorder to pass to {@link #exit(Recorder)} once the execution is done,
+	 * or null if executions aren't being measured.
+	 */
+	@Nullable
+	public static Recorder enter(TriggerItem item) {
+		if (!profiling)
+			return null;
+		Recorder recorder = RECORDERS.get();
+		if (recorder == null || recorder.generation != generation) {
+			recorder = idleRecorders.poll();
+			while (recorder != null && recorder.generation != generation) // left over from a previous run
+				recorder = idleRecorders.poll();
+			if (recorder == null) {
+				recorder = new Recorder(generation);
+				recorders.add(recorder);
+			}
+			RECORDERS.set(recorder);
+		}
+		recorder.enter(item);
+		return recorder;
+	}
+
+	/**
+	 * Marks the start of an execution that continues the given trigger, e.g. after a delay,
+	 *  unless the current thread is already executing something, in which case the trigger has been entered before.
+	 * This way the lines of a continuation are recorded under their trigger instead of as separate paths,
+	 *  and every continuation counts as an invocation of the trigger.
+	 * @return The recorder to pass to {@link #exit(Recorder)} once the continuation is done,
+	 * or null if nothing was entered.
+	 */
+	@Nullable
+	public static Recorder enterContinuation(Trigger trigger) {
+		if (!profiling)
+			return null;
+		Recorder recorder = RECORDERS.get();
+		if (recorder != null && recorder.generation == generation && recorder.depth > 0)
+			return null;
+		return enter(trigger);
+	}
+
+	/**
+	 * Marks the end of the execution entered last on the current thread.
+	 * @param recorder The recorder returned by {@link #enter(TriggerItem)}.
+	 */
+	public static void exit(@Nullable Recorder recorder) {
+		if (recorder == null)
+			return;
+		recorder.exit();
+		if (recorder.depth == 0) { // the outermost execution is done, let other threads use this recorder
+			RECORDERS.remove();
+			idleRecorders.offer(recorder);
+		}
+	}
+
+	/**
+	 * Stops measuring executions and writes the results.
+	 * Executions that are still running when profiling stops are not included.
+	 * @return The collapsed stack file, or null if profiling was not running or the results could not be written.
+	 */
+	@Nullable
+	public static synchronized File stopProfiling() {
+		if (!profiling)
+			return null;
+		profiling = false;
+		long wallTime = System.nanoTime() - startTime;
+
+		File folder = new File(Skript.getInstance().getDataFolder(), PROFILES_FOLDER);
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			Skript.error("Could not create the directory " + folder);
+			return null;
+		}
+		String name = "execution-" + FileUtils.getBackupSuffix();
+		File stacksFile = new File(folder, name + ".txt");
+		File summaryFile = new File(folder, name + ".csv");
+
+		Map<TriggerItem, String> labels = new HashMap<>();
+		Map<TriggerItem, Summary> summaries = new HashMap<>();
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(stacksFile.toPath(), StandardCharsets.UTF_8))) {
+			for (Recorder recorder : recorders)
+				write(out, "", recorder.root, labels, summaries, new HashSet<>());
+		} catch (IOException e) {
+			Skript.exception(e, "Could not write the execution profile");
+			return null;
+		}
+
+		List<Map.Entry<TriggerItem, Summary>> entries = new ArrayList<>(summaries.entrySet());
+		entries.sort(Comparator.comparingLong((Map.Entry<TriggerItem, Summary> entry) -> entry.getValue().selfTime).reversed());
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(summaryFile.toPath(), StandardCharsets.UTF_8))) {
+			out.println("kind,name,invocations,total ms,self ms");
+			out.println("total," + escape("wall time") + ",1," + toMillis(wallTime) + "," + toMillis(wallTime));
+			for (Map.Entry<TriggerItem, Summary> entry : entries) {
+				Summary summary = entry.getValue();
+				out.println((entry.getKey() instanceof Trigger ? "trigger" : "line") + "," + escape(labels.get(entry.getKey())) + ","
+					+ summary.invocations + "," + toMillis(summary.totalTime) + "," + toMillis(summary.selfTime));
+			}
+		} catch (IOException e) {
+			Skript.exception(e, "Could not write the execution profile");
+			return null;
+		}
+		recorders.clear();
+		idleRecorders.clear();
+		return stacksFile;
+	}
+
+	/**
+	 * The measurements of a trigger or line, summed up over all paths it was executed through.
+	 */
+	private static final class Summary {
+
+		private long invocations;
+		private long totalTime;
+		private long selfTime;
+
+	}
+
+	/**
+	 * Writes the collapsed stacks of the children of the given node and adds them to the summaries.
+	 * @param active The items on the current path, whose time already contains the time of their recursive executions.
+	 */
+	private static void write(PrintWriter out, String path, Node node, Map<TriggerItem, String> labels,
+							  Map<TriggerItem, Summary> summaries, Set<TriggerItem> active) {
+		for (Map.Entry<TriggerItem, Node> entry : node.children.entrySet()) {
+			TriggerItem item = entry.getKey();
+			Node child = entry.getValue();
+			String childPath = path + labels.computeIfAbsent(item, ExecutionProfiler::describe);
+			long selfTime = child.totalTime - child.childTime;
+			if (selfTime > 0)
+				out.println(childPath + " " + TimeUnit.NANOSECONDS.toMicros(selfTime));
+
+			Summary summary = summaries.computeIfAbsent(item, key -> new Summary());
+			summary.invocations += child.invocations;
+			summary.selfTime += selfTime;
+			boolean outermost = active.add(item);
+			if (outermost)
+				summary.totalTime += child.totalTime;
+			write(out, childPath + ";", child, labels, summaries, active);
+			if (outermost)
+				active.remove(item);
+		}
+	}
+
+	private static String describe(TriggerItem item) {
+		Trigger trigger = item.getTrigger();
+		Script script = trigger != null ? trigger.getScript() : null;
+		String description = item instanceof Trigger ? ((Trigger) item).getName() : item.toString(null, false);
+		String label = (script != null ? script.getConfig().getFileName() : "unknown") + ":" + item.getLineNumber() + " " + description;
+		// ';' separates the frames of a collapsed stack
+		return label.replace(';', ',');
+	}
+
+	private static String toMillis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	private static String escape(String value) {
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+}
@@ -33,6 +33,7 @@ import ch.njol.skript.variables.Variables;
 /**
  * Effects that extend this class are ran asynchronously. Next trigger item will be ran
  * in main server thread, as if there had been a delay before.
+ * The effect itself is run by the {@link AsyncExecutor}.
  * <p>
  * Majority of Skript and Minecraft APIs are not thread-safe, so be careful.
  *
@@ -52,7 +53,7 @@ public abstract class AsyncEffect extends Effect {
 		if (!Skript.getInstance().isEnabled()) // See https://github.com/SkriptLang/Skript/issues/3702
 			return null;
 
-		Bukkit.getScheduler().runTaskAsynchronously(Skript.getInstance(), () -> {
+		AsyncExecutor.execute(() -> {
 			// Re-set local variables
 			if (localVars != null)
 				Variables.setLocalVariables(e, localVars);
@@ -0,0 +1,195 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.util;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
+import org.bukkit.Bukkit;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs Skript's asynchronous work, e.g. {@link AsyncEffect}s.
+ * <br>
+ * By default, tasks run on virtual threads when the server runs on Java 21 or newer
+ *  and {@link SkriptConfig#useVirtualThreads} is enabled, so that blocking tasks don't take up a thread of a limited pool.
+ * Otherwise, they run on Bukkit's asynchronous scheduler, like they always did.
+ * Addons may replace the executor using {@link #setExecutor(Executor)}.
+ * <br>
+ * The executor keeps track of how many tasks are waiting to start or running, and how long tasks waited before they started.
+ */
+public final class AsyncExecutor {
+
+	private AsyncExecutor() {}
+
+	/**
+	 * The executor set by {@link #setExecutor(Executor)}, or null to use the default one.
+	 */
+	@Nullable
+	private static volatile Executor customExecutor;
+
+	/**
+	 * The executor running tasks on virtual threads, if it has been created.
+	 */
+	@Nullable
+	private static ExecutorService virtualExecutor;
+
+	/**
+	 * The executor running tasks on Bukkit's asynchronous scheduler, used if virtual threads are disabled or unsupported.
+	 */
+	private static final Executor BUKKIT_EXECUTOR = task -> Bukkit.getScheduler().runTaskAsynchronously(Skript.getInstance(), task);
+
+	/**
+	 * Whether this JVM can't create virtual threads. Only checked once.
+	 */
+	private static boolean virtualThreadsUnsupported;
+
+	private static final AtomicInteger PENDING = new AtomicInteger();
+	private static final LongAdder EXECUTED = new LongAdder();
+	private static final LongAdder TOTAL_LATENCY = new LongAdder();
+
+	/**
+	 * Runs the given task asynchronously.
+	 * @param task The task to run. Exceptions thrown by it are reported with {@link Skript#exception(Throwable, String...)}.
+	 */
+	public static void execute(Runnable task) {
+		long submitted = System.nanoTime();
+		PENDING.incrementAndGet();
+		Runnable measured = () -> {
+			TOTAL_LATENCY.add(System.nanoTime() - submitted);
+			EXECUTED.increment();
+			try {
+				task.run();
+			} catch (Exception e) {
+				Skript.exception(e, "An error occurred while running an asynchronous task.");
+			} catch (Throwable throwable) {
+				// not all Throwables are Exceptions, but we usually don't want to catch them (without rethrowing)
+				Skript.markErrored();
+				throw throwable;
+			} finally {
+				PENDING.decrementAndGet();
+			}
+		};
+		try {
+			getExecutor().execute(measured);
+		} catch (RuntimeException e) {
+			PENDING.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * Replaces the executor used to run asynchronous tasks.
+	 * The executor must not run tasks on the main server thread.
+	 * @param executor The executor to use, or null to use the default one again.
+	 */
+	public static void setExecutor(@Nullable Executor executor) {
+		customExecutor = executor;
+	}
+
+	/**
+	 * @return The executor currently used to run asynchronous tasks.
+	 */
+	public static Executor getExecutor() {
+		Executor executor = customExecutor;
+		if (executor != null)
+			return executor;
+		if (SkriptConfig.useVirtualThreads.value()) {
+			executor = getVirtualExecutor();
+			if (executor != null)
+				return executor;
+		}
+		return BUKKIT_EXECUTOR;
+	}
+
+	/**
+	 * @return Whether asynchronous tasks currently run on virtual threads.
+	 */
+	public static boolean isUsingVirtualThreads() {
+		return customExecutor == null && SkriptConfig.useVirtualThreads.value() && getVirtualExecutor() != null;
+	}
+
+	/**
+	 * @return The executor running tasks on virtual threads, or null if this JVM doesn't support them.
+	 */
+	@Nullable
+	private static synchronized ExecutorService getVirtualExecutor() {
+		if (virtualExecutor != null || virtualThreadsUnsupported)
+			return virtualExecutor;
+		try {
+			// Java 21+, accessed reflectively as Skript is compiled for Java 8
+			virtualExecutor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			virtualThreadsUnsupported = true;
+			return null;
+		}
+		Skript.closeOnDisable(AsyncExecutor::shutdown);
+		return virtualExecutor;
+	}
+
+	/**
+	 * Stops the virtual thread executor, waiting a few seconds for running tasks to finish.
+	 * It is created again if more tasks are submitted afterwards.
+	 */
+	private static void shutdown() {
+		ExecutorService executor;
+		synchronized (AsyncExecutor.class) {
+			executor = virtualExecutor;
+			virtualExecutor = null;
+		}
+		if (executor == null)
+			return;
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(5, TimeUnit.SECONDS))
+				Skript.warning("Some asynchronous tasks didn't finish before Skript was disabled.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return How many tasks are waiting to start or running.
+	 */
+	public static int getQueueDepth() {
+		return PENDING.get();
+	}
+
+	/**
+	 * @return How many tasks have been started.
+	 */
+	public static long getExecutedTasks() {
+		return EXECUTED.sum();
+	}
+
+	/**
+	 * @return How long tasks waited to be started on average, in milliseconds.
+	 */
+	public static double getAverageLatency() {
+		long executed = EXECUTED.sum();
+		return executed == 0 ? 0 : TOTAL_LATENCY.sum() / 1_000_000. / executed;
+	}
+
+}
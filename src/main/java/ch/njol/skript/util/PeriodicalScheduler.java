@@ -0,0 +1,231 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.util;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the tasks of periodical events, e.g. <code>every 1 minute</code>, on the main thread.
+ * <br>
+ * All tasks are driven by a single {@link TimingWheel}. When a task is scheduled with {@link #scheduleSmeared(Runnable, long)},
+ *  its first run is moved by up to {@link SkriptConfig#periodicalEventJitter} to the tick on which the fewest other tasks run,
+ *  so that tasks with the same period don't all run on the same tick.
+ * <br>
+ * The scheduler also records how many tasks ran and for how long in each of the last {@link #HISTORY} ticks,
+ *  so that ticks with a lot of scheduled work can be spotted.
+ */
+public final class PeriodicalScheduler {
+
+	private PeriodicalScheduler() {}
+
+	/**
+	 * How many ticks of load are remembered.
+	 */
+	public static final int HISTORY = 200;
+
+	private static final TimingWheel WHEEL = new TimingWheel();
+
+	/**
+	 * All tasks that are currently scheduled. Guarded by the class lock.
+	 */
+	private static final List<Entry> ENTRIES = new ArrayList<>();
+
+	/**
+	 * The tick each slot of {@link #loadTasks} and {@link #loadTimes} belongs to. Only used by the main thread.
+	 */
+	private static final long[] loadTicks = new long[HISTORY];
+	private static final int[] loadTasks = new int[HISTORY];
+	private static final long[] loadTimes = new long[HISTORY];
+
+	/**
+	 * A scheduled task, which can be used to cancel it.
+	 */
+	public static final class Entry {
+
+		private final Runnable task;
+		private final long period;
+		/**
+		 * A tick of the wheel on which this task runs. It runs every {@link #period} ticks before and after it.
+		 */
+		private final long phase;
+
+		/**
+		 * The next run of this task. Guarded by the class lock of {@link PeriodicalScheduler}.
+		 */
+		@Nullable
+		private TimingWheel.Entry next;
+		private boolean cancelled;
+
+		private Entry(Runnable task, long period, long phase) {
+			this.task = task;
+			this.period = period;
+			this.phase = phase;
+		}
+
+		/**
+		 * Stops the task from running again.
+		 */
+		public void cancel() {
+			synchronized (PeriodicalScheduler.class) {
+				if (cancelled)
+					return;
+				cancelled = true;
+				ENTRIES.remove(this);
+				if (next != null)
+					next.cancel();
+			}
+		}
+
+		/**
+		 * @return Whether this task runs on the given tick of the wheel.
+		 */
+		private boolean runsOn(long tick) {
+			return tick >= phase ? (tick - phase) % period == 0 : (phase - tick) % period == 0;
+		}
+
+	}
+
+	/**
+	 * Schedules a task to run every {@code period} ticks, starting after the given delay.
+	 * Use this for tasks that have to run on specific ticks, e.g. in sync with the time of a world.
+	 * Can be called from any thread.
+	 * @param period The number of ticks between two runs, at least 1.
+	 * @param delay The number of ticks before the first run, at least 1.
+	 * @return The entry of the task, which can be used to cancel it.
+	 */
+	public static synchronized Entry schedule(Runnable task, long period, long delay) {
+		WHEEL.start(Skript.getInstance());
+		Entry entry = new Entry(task, Math.max(period, 1), WHEEL.getCurrentTick() + Math.max(delay, 1));
+		ENTRIES.add(entry);
+		entry.next = WHEEL.schedule(() -> run(entry), entry.phase - WHEEL.getCurrentTick());
+		return entry;
+	}
+
+	/**
+	 * Schedules a task to run every {@code period} ticks, starting after one period.
+	 * The first run is delayed by up to {@link SkriptConfig#periodicalEventJitter} (and less than one period),
+	 *  choosing the tick on which the fewest other tasks run.
+	 * Can be called from any thread.
+	 * @param period The number of ticks between two runs, at least 1.
+	 * @return The entry of the task, which can be used to cancel it.
+	 */
+	public static synchronized Entry scheduleSmeared(Runnable task, long period) {
+		period = Math.max(period, 1);
+		long maxOffset = Math.min(SkriptConfig.periodicalEventJitter.value().getTicks(), period - 1);
+		long start = WHEEL.getCurrentTick() + period;
+		long bestOffset = 0;
+		int leastTasks = Integer.MAX_VALUE;
+		for (long offset = 0; offset <= maxOffset && leastTasks > 0; offset++) {
+			int tasks = 0;
+			for (Entry entry : ENTRIES) {
+				if (entry.runsOn(start + offset))
+					tasks++;
+			}
+			if (tasks < leastTasks) {
+				leastTasks = tasks;
+				bestOffset = offset;
+			}
+		}
+		return schedule(task, period, period + bestOffset);
+	}
+
+	private static void run(Entry entry) {
+		synchronized (PeriodicalScheduler.class) {
+			if (entry.cancelled)
+				return;
+			entry.next = WHEEL.schedule(() -> run(entry), entry.period);
+		}
+
+		long start = System.nanoTime();
+		try {
+			entry.task.run();
+		} finally {
+			long tick = WHEEL.getCurrentTick();
+			int index = (int) (tick % HISTORY);
+			if (loadTicks[index] != tick) {
+				loadTicks[index] = tick;
+				loadTasks[index] = 0;
+				loadTimes[index] = 0;
+			}
+			loadTasks[index]++;
+			loadTimes[index] += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * @return How many tasks are scheduled.
+	 */
+	public static synchronized int getScheduledTasks() {
+		return ENTRIES.size();
+	}
+
+	/**
+	 * @return The most tasks that ran in one of the last {@link #HISTORY} ticks.
+	 * Must be called on the main thread.
+	 */
+	public static int getMaxTasksPerTick() {
+		long oldest = WHEEL.getCurrentTick() - HISTORY;
+		int max = 0;
+		for (int i = 0; i < HISTORY; i++) {
+			if (loadTicks[i] > oldest)
+				max = Math.max(max, loadTasks[i]);
+		}
+		return max;
+	}
+
+	/**
+	 * @return The longest time tasks took in one of the last {@link #HISTORY} ticks, in milliseconds.
+	 * Must be called on the main thread.
+	 */
+	public static double getMaxTimePerTick() {
+		long oldest = WHEEL.getCurrentTick() - HISTORY;
+		long max = 0;
+		for (int i = 0; i < HISTORY; i++) {
+			if (loadTicks[i] > oldest)
+				max = Math.max(max, loadTimes[i]);
+		}
+		return max / 1_000_000.;
+	}
+
+	/**
+	 * @return How long tasks took per tick on average over the last {@link #HISTORY} ticks
+	 * (or all ticks, if fewer have passed since the scheduler started), in milliseconds.
+	 * Must be called on the main thread.
+	 */
+	public static double getAverageTimePerTick() {
+		long currentTick = WHEEL.getCurrentTick();
+		// the wheel counts its ticks from 0, so this is how many ticks the history covers
+		long ticks = Math.min(currentTick, HISTORY);
+		if (ticks == 0)
+			return 0;
+		long oldest = currentTick - HISTORY;
+		long total = 0;
+		for (int i = 0; i < HISTORY; i++) {
+			if (loadTicks[i] > oldest)
+				total += loadTimes[i];
+		}
+		return total / 1_000_000. / ticks;
+	}
+
+}
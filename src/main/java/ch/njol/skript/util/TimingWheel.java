@@ -0,0 +1,301 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.util;
+
+import ch.njol.skript.Skript;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs tasks on the main thread after a given number of ticks, driven by a single repeating task.
+ * <br>
+ * Tasks are kept in a hierarchical timing wheel: each level has {@link #SLOTS} slots,
+ *  and each slot of a level spans as many ticks as a whole turn of the level below it.
+ * A task is put into the lowest level whose turn still reaches its deadline,
+ *  and moves down a level whenever the wheel reaches its slot, until it is run from the lowest level.
+ * This makes scheduling and cancelling tasks take constant time, no matter how many tasks are waiting.
+ * <br>
+ * Tasks scheduled for the same tick run in the order they were scheduled.
+ */
+public final class TimingWheel implements Closeable {
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	/**
+	 * The longest delay the wheel can hold. Tasks with longer delays are moved through the top level repeatedly.
+	 */
+	private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+	/**
+	 * A scheduled task, which can be used to cancel it.
+	 */
+	public static final class Entry {
+
+		private final TimingWheel wheel;
+		private final Runnable task;
+		private final long deadline;
+		/**
+		 * The order in which the task was scheduled, which tasks of the same slot are kept sorted by.
+		 */
+		private final long sequence;
+
+		@Nullable
+		private Slot slot;
+		@Nullable
+		private Entry previous, next;
+		/**
+		 * Whether the task has been run or cancelled. Guarded by the wheel's lock.
+		 */
+		private boolean done;
+
+		private Entry(TimingWheel wheel, Runnable task, long deadline, long sequence) {
+			this.wheel = wheel;
+			this.task = task;
+			this.deadline = deadline;
+			this.sequence = sequence;
+		}
+
+		/**
+		 * Prevents the task from running.
+		 * @return Whether the task was still waiting to run.
+		 */
+		public boolean cancel() {
+			synchronized (wheel) {
+				if (done)
+					return false;
+				done = true;
+				Slot slot = this.slot;
+				if (slot != null) { // otherwise it is due in the current tick and just won't be run
+					slot.remove(this);
+					wheel.pending--;
+				}
+				return true;
+			}
+		}
+
+	}
+
+	private static final class Slot {
+
+		@Nullable
+		private Entry head, tail;
+
+		/**
+		 * Adds an entry after all entries that were scheduled before it.
+		 * New entries are simply appended, but entries moved down from a higher level
+		 *  have to be put before the entries that were scheduled later directly into this slot.
+		 */
+		private void add(Entry entry) {
+			Entry previous = tail;
+			while (previous != null && previous.sequence > entry.sequence)
+				previous = previous.previous;
+			Entry next = previous == null ? head : previous.next;
+			entry.slot = this;
+			entry.previous = previous;
+			entry.next = next;
+			if (previous == null) {
+				head = entry;
+			} else {
+				previous.next = entry;
+			}
+			if (next == null) {
+				tail = entry;
+			} else {
+				next.previous = entry;
+			}
+		}
+
+		private void remove(Entry entry) {
+			Entry previous = entry.previous, next = entry.next;
+			if (previous == null) {
+				head = next;
+			} else {
+				previous.next = next;
+			}
+			if (next == null) {
+				tail = previous;
+			} else {
+				next.previous = previous;
+			}
+			entry.slot = null;
+			entry.previous = null;
+			entry.next = null;
+		}
+
+	}
+
+	private final Slot[][] levels = new Slot[LEVELS][SLOTS];
+
+	/**
+	 * The tasks due in the tick that is being processed. Only used by the main thread.
+	 */
+	private final List<Entry> due = new ArrayList<>();
+
+	private long currentTick = 0;
+	private long scheduled = 0;
+	private int pending = 0;
+
+	@Nullable
+	private BukkitTask task;
+
+	public TimingWheel() {
+		for (Slot[] level : levels) {
+			for (int i = 0; i < SLOTS; i++)
+				level[i] = new Slot();
+		}
+	}
+
+	/**
+	 * Starts the repeating task that drives this wheel, unless it is already running.
+	 * The wheel is stopped and cleared when the plugin is disabled.
+	 */
+	public synchronized void start(Plugin plugin) {
+		if (task != null)
+			return;
+		task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+		if (plugin == Skript.getInstance())
+			Skript.closeOnDisable(this);
+	}
+
+	/**
+	 * Schedules a task to run on the main thread after the given number of ticks.
+	 * Can be called from any thread.
+	 * @param delay The number of ticks to wait, at least 1.
+	 * @return The entry of the task, which can be used to cancel it.
+	 */
+	public synchronized Entry schedule(Runnable task, long delay) {
+		Entry entry = new Entry(this, task, currentTick + Math.max(delay, 1), scheduled++);
+		insert(entry);
+		pending++;
+		return entry;
+	}
+
+	/**
+	 * @return How many ticks this wheel has processed since it was created.
+	 */
+	public synchronized long getCurrentTick() {
+		return currentTick;
+	}
+
+	/**
+	 * @return How many tasks are waiting to be run.
+	 */
+	public synchronized int getPending() {
+		return pending;
+	}
+
+	private void insert(Entry entry) {
+		long delay = Math.min(entry.deadline - currentTick, MAX_DELAY);
+		long deadline = currentTick + delay;
+		int level = 0;
+		while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1)))
+			level++;
+		levels[level][(int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK].add(entry);
+	}
+
+	/**
+	 * Moves the tasks of the current slot of the given level to lower levels.
+	 * @return Whether the level below should also be moved down, i.e. whether this level started a new turn.
+	 */
+	private boolean cascade(int level) {
+		int index = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+		Slot slot = levels[level][index];
+		Entry entry;
+		while ((entry = slot.head) != null) {
+			slot.remove(entry);
+			insert(entry);
+		}
+		return index == 0;
+	}
+
+	/**
+	 * Processes the next tick, running all tasks that are due. Called by the repeating task started by {@link #start(Plugin)}.
+	 */
+	void tick() {
+		synchronized (this) {
+			currentTick++;
+			if ((currentTick & SLOT_MASK) == 0) {
+				int level = 1;
+				while (level < LEVELS && cascade(level))
+					level++;
+			}
+
+			Slot slot = levels[0][(int) currentTick & SLOT_MASK];
+			Entry entry;
+			while ((entry = slot.head) != null) {
+				slot.remove(entry);
+				if (entry.deadline > currentTick) { // waiting longer than the wheel can hold
+					insert(entry);
+					continue;
+				}
+				pending--;
+				due.add(entry);
+			}
+		}
+
+		try {
+			for (int i = 0; i < due.size(); i++) {
+				Entry entry = due.get(i);
+				synchronized (this) {
+					if (entry.done)
+						continue;
+					entry.done = true;
+				}
+				try {
+					entry.task.run();
+				} catch (Exception e) {
+					Skript.exception(e, "An error occurred while running a scheduled task");
+				}
+			}
+		} finally {
+			due.clear();
+		}
+	}
+
+	/**
+	 * Stops the task that drives this wheel and discards all waiting tasks.
+	 */
+	@Override
+	public synchronized void close() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		for (Slot[] level : levels) {
+			for (Slot slot : level) {
+				Entry entry;
+				while ((entry = slot.head) != null) {
+					slot.remove(entry);
+					entry.done = true;
+				}
+			}
+		}
+		pending = 0;
+	}
+
+}
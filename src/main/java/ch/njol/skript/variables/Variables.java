@@ -26,6 +26,7 @@ import ch.njol.skript.classes.ConfigurationSerializer;
 import ch.njol.skript.config.Config;
 import ch.njol.skript.config.Node;
 import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.lang.TriggerContext;
 import ch.njol.skript.lang.Variable;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.registrations.Classes;
@@ -58,7 +59,6 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.Lock;
@@ -334,12 +334,6 @@ public class Variables {
 	 */
 	static final VariablesMap variables = new VariablesMap();
 
-	/**
-	 * A map storing all local variables,
-	 * indexed by their {@link Event}.
-	 */
-	private static final Map<Event, VariablesMap> localVariables = new ConcurrentHashMap<>();
-
 	/**
 	 * Gets the {@link TreeMap} of all global variables.
 	 * <p>
@@ -380,7 +374,19 @@ public class Variables {
 	 */
 	@Nullable
 	public static VariablesMap removeLocals(Event event) {
-		return localVariables.remove(event);
+		TriggerContext context = TriggerContext.remove(event);
+		if (context == null)
+			return null;
+		VariablesMap locals = (VariablesMap) context.getLocals();
+		if (locals == null) {
+			if (!context.hasState())
+				return null;
+			// the returned map carries the rest of the context, so that it is restored along with the variables
+			locals = new VariablesMap();
+			context.setLocals(locals);
+		}
+		locals.context = context;
+		return locals;
 	}
 
 	/**
@@ -396,9 +402,20 @@ public class Variables {
 	 */
 	public static void setLocalVariables(Event event, @Nullable Object map) {
 		if (map != null) {
-			localVariables.put(event, (VariablesMap) map);
+			VariablesMap locals = (VariablesMap) map;
+			TriggerContext context = locals.context;
+			if (context != null) { // restoring a backup from removeLocals
+				TriggerContext.set(event, context);
+			} else {
+				context = TriggerContext.get(event);
+				locals.context = context;
+			}
+			context.setLocals(locals);
 		} else {
-			removeLocals(event);
+			// only the variables, the rest of the context still belongs to the running execution
+			TriggerContext context = TriggerContext.find(event);
+			if (context != null)
+				context.setLocals(null);
 		}
 	}
 
@@ -411,7 +428,8 @@ public class Variables {
 	 */
 	@Nullable
 	public static Object copyLocalVariables(Event event) {
-		VariablesMap from = localVariables.get(event);
+		TriggerContext context = TriggerContext.find(event);
+		VariablesMap from = context == null ? null : (VariablesMap) context.getLocals();
 		if (from == null)
 			return null;
 
@@ -444,11 +462,8 @@ public class Variables {
 		}
 
 		if (local) {
-			VariablesMap map = localVariables.get(event);
-			if (map == null)
-				return null;
-
-			return map.getVariable(n);
+			TriggerContext context = event == null ? null : TriggerContext.find(event);
+			return context == null ? null : getLocalVariable(name, context);
 		} else {
 			// Prevent race conditions from returning variables with incorrect values
 			if (!changeQueue.isEmpty()) {
@@ -474,6 +489,26 @@ public class Variables {
 		}
 	}
 
+	/**
+	 * Returns the internal value of the requested local variable of an execution,
+	 *  like {@link #getVariable(String, Event, boolean)} but without looking up the context of the event.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 *
+	 * @param name the variable's name.
+	 * @param context the context of the execution the local variable resides in.
+	 * @return an {@link Object} for a normal variable
+	 * or a {@code Map<String, Object>} for a list variable,
+	 * or {@code null} if the variable is not set.
+	 */
+	@Nullable
+	public static Object getLocalVariable(String name, TriggerContext context) {
+		VariablesMap map = (VariablesMap) context.getLocals();
+		if (map == null)
+			return null;
+		return map.getVariable(caseInsensitiveVariables ? name.toLowerCase(Locale.ENGLISH) : name);
+	}
+
 	/**
 	 * Deletes a variable.
 	 *
@@ -499,32 +534,63 @@ public class Variables {
 	 * @param local if this variable is a local or global variable.
 	 */
 	public static void setVariable(String name, @Nullable Object value, @Nullable Event event, boolean local) {
+		if (local) {
+			assert event != null : name;
+			setLocalVariable(name, value, TriggerContext.get(event));
+			return;
+		}
+
 		if (caseInsensitiveVariables) {
 			name = name.toLowerCase(Locale.ENGLISH);
 		}
 
-		// Check if conversion is needed due to ClassInfo#getSerializeAs
 		if (value != null) {
 			assert !name.endsWith("::*");
+			value = convertForStorage(value);
+		}
 
-			ClassInfo<?> ci = Classes.getSuperClassInfo(value.getClass());
-			Class<?> sas = ci.getSerializeAs();
+		setVariable(name, value);
+	}
 
-			if (sas != null) {
-				value = Converters.convert(value, sas);
-				assert value != null : ci + ", " + sas;
-			}
+	/**
+	 * Sets a local variable of an execution,
+	 *  like {@link #setVariable(String, Object, Event, boolean)} but without looking up the context of the event.
+	 *
+	 * @param name the variable's name.
+	 * @param value The variable's value. Use {@code null}
+	 *                 to delete the variable.
+	 * @param context the context of the execution the local variable resides in.
+	 */
+	public static void setLocalVariable(String name, @Nullable Object value, TriggerContext context) {
+		if (caseInsensitiveVariables)
+			name = name.toLowerCase(Locale.ENGLISH);
+
+		if (value != null) {
+			assert !name.endsWith("::*");
+			value = convertForStorage(value);
 		}
 
-		if (local) {
-			assert event != null : name;
+		// Get the variables map and set the variable in it
+		VariablesMap map = (VariablesMap) context.getLocals();
+		if (map == null) {
+			map = new VariablesMap();
+			context.setLocals(map);
+		}
+		map.setVariable(name, value);
+	}
 
-			// Get the variables map and set the variable in it
-			VariablesMap map = localVariables.computeIfAbsent(event, e -> new VariablesMap());
-			map.setVariable(name, value);
-		} else {
-			setVariable(name, value);
+	/**
+	 * Converts the given value if its class is stored as another class (see {@link ClassInfo#getSerializeAs()}).
+	 */
+	private static Object convertForStorage(Object value) {
+		ClassInfo<?> ci = Classes.getSuperClassInfo(value.getClass());
+		Class<?> sas = ci.getSerializeAs();
+
+		if (sas != null) {
+			value = Converters.convert(value, sas);
+			assert value != null : ci + ", " + sas;
 		}
+		return value;
 	}
 
 	/**
@@ -18,6 +18,7 @@
  */
 package ch.njol.skript.variables;
 
+import ch.njol.skript.lang.TriggerContext;
 import ch.njol.skript.lang.Variable;
 import ch.njol.util.StringUtils;
 import org.eclipse.jdt.annotation.Nullable;
@@ -33,6 +34,13 @@ import java.util.TreeMap;
  */
 final class VariablesMap {
 
+	/**
+	 * The context these local variables were removed from by {@link Variables#removeLocals(org.bukkit.event.Event)},
+	 * restored along with them by {@link Variables#setLocalVariables(org.bukkit.event.Event, Object)}.
+	 */
+	@Nullable
+	TriggerContext context;
+
 	/**
 	 * The comparator for comparing variable names.
 	 */
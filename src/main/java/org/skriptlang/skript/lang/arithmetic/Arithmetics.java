@@ -20,28 +20,39 @@ package org.skriptlang.skript.lang.arithmetic;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
-import ch.njol.util.Pair;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnmodifiableView;
+import org.skriptlang.skript.lang.util.ClassPairCache;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public final class Arithmetics {
 
 	private static final Map<Operator, List<OperationInfo<?, ?, ?>>> operations = Collections.synchronizedMap(new HashMap<>());
-	private static final Map<Operator, Map<Pair<Class<?>, Class<?>>, OperationInfo<?, ?, ?>>> cachedOperations = Collections.synchronizedMap(new HashMap<>());
+	private static final Map<Operator, ClassPairCache<OperationInfo<?, ?, ?>>> cachedOperations = new EnumMap<>(Operator.class);
+	private static final Map<Operator, ClassPairCache<OperationInfo<?, ?, ?>>> cachedConvertedOperations = new EnumMap<>(Operator.class);
+
+	static {
+		for (Operator operator : Operator.values()) {
+			cachedOperations.put(operator, new ClassPairCache<>((left, right) -> resolveOperationInfo(operator, left, right)));
+			cachedConvertedOperations.put(operator, new ClassPairCache<>((left, right) -> resolveConvertedOperationInfo(operator, left, right)));
+		}
+	}
 
 	private static final Map<Class<?>, DifferenceInfo<?, ?>> differences = Collections.synchronizedMap(new HashMap<>());
-	private static final Map<Class<?>, DifferenceInfo<?, ?>> cachedDifferences = Collections.synchronizedMap(new HashMap<>());
+	private static final Map<Class<?>, Optional<DifferenceInfo<?, ?>>> cachedDifferences = new ConcurrentHashMap<>();
 
 	private static final Map<Class<?>, Supplier<?>> defaultValues = Collections.synchronizedMap(new HashMap<>());
-	private static final Map<Class<?>, Supplier<?>> cachedDefaultValues = Collections.synchronizedMap(new HashMap<>());
+	private static final Map<Class<?>, Optional<Supplier<?>>> cachedDefaultValues = new ConcurrentHashMap<>();
 
 	public static <T> void registerOperation(Operator operator, Class<T> type, Operation<T, T, T> operation) {
 		registerOperation(operator, type, type, type, operation);
@@ -107,23 +118,23 @@ public final class Arithmetics {
 		return null;
 	}
 
-	private static Map<Pair<Class<?>, Class<?>>, OperationInfo<?, ?, ?>> getCachedOperations(Operator operator) {
-		return cachedOperations.computeIfAbsent(operator, o -> Collections.synchronizedMap(new HashMap<>()));
-	}
-
 	@Nullable
 	@SuppressWarnings("unchecked")
 	public static <L, R> OperationInfo<L, R, ?> getOperationInfo(Operator operator, Class<L> leftClass, Class<R> rightClass) {
 		assertIsOperationsDoneLoading();
-		return (OperationInfo<L, R, ?>) getCachedOperations(operator).computeIfAbsent(new Pair<>(leftClass, rightClass), pair ->
-			getOperations(operator).stream()
-				.filter(info -> info.getLeft().isAssignableFrom(leftClass) && info.getRight().isAssignableFrom(rightClass))
-				.reduce((info, info2) -> {
-					if (info2.getLeft() == leftClass && info2.getRight() == rightClass)
-						return info2;
-					return info;
-				})
-				.orElse(null));
+		return (OperationInfo<L, R, ?>) cachedOperations.get(operator).get(leftClass, rightClass);
+	}
+
+	@Nullable
+	private static OperationInfo<?, ?, ?> resolveOperationInfo(Operator operator, Class<?> leftClass, Class<?> rightClass) {
+		return getOperations(operator).stream()
+			.filter(info -> info.getLeft().isAssignableFrom(leftClass) && info.getRight().isAssignableFrom(rightClass))
+			.reduce((info, info2) -> {
+				if (info2.getLeft() == leftClass && info2.getRight() == rightClass)
+					return info2;
+				return info;
+			})
+			.orElse(null);
 	}
 
 	@Nullable
@@ -150,16 +161,19 @@ public final class Arithmetics {
 		OperationInfo<L, R, ?> operationInfo = getOperationInfo(operator, leftClass, rightClass);
 		if (operationInfo != null)
 			return operationInfo;
-		return (OperationInfo<L, R, ?>) getCachedOperations(operator).computeIfAbsent(new Pair<>(leftClass, rightClass), pair -> {
-			for (OperationInfo<?, ?, ?> info : getOperations(operator)) {
-				if (!info.getLeft().isAssignableFrom(leftClass) && !info.getRight().isAssignableFrom(rightClass))
-					continue;
-				OperationInfo<L, R, ?> convertedInfo = info.getConverted(leftClass, rightClass, info.getReturnType());
-				if (convertedInfo != null)
-					return convertedInfo;
-			}
-			return null;
-		});
+		return (OperationInfo<L, R, ?>) cachedConvertedOperations.get(operator).get(leftClass, rightClass);
+	}
+
+	@Nullable
+	private static OperationInfo<?, ?, ?> resolveConvertedOperationInfo(Operator operator, Class<?> leftClass, Class<?> rightClass) {
+		for (OperationInfo<?, ?, ?> info : getOperations(operator)) {
+			if (!info.getLeft().isAssignableFrom(leftClass) && !info.getRight().isAssignableFrom(rightClass))
+				continue;
+			OperationInfo<?, ?, ?> convertedInfo = info.getConverted(leftClass, rightClass, info.getReturnType());
+			if (convertedInfo != null)
+				return convertedInfo;
+		}
+		return null;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -205,15 +219,19 @@ public final class Arithmetics {
 	public static <T> DifferenceInfo<T, ?> getDifferenceInfo(Class<T> type) {
 		if (Skript.isAcceptRegistrations())
 			throw new SkriptAPIException("Differences cannot be retrieved until Skript has finished registrations.");
-		return (DifferenceInfo<T, ?>) cachedDifferences.computeIfAbsent(type, c -> {
-			if (differences.containsKey(type))
-				return differences.get(type);
-			for (Map.Entry<Class<?>, DifferenceInfo<?, ?>> entry : differences.entrySet()) {
-				if (entry.getKey().isAssignableFrom(type))
-					return entry.getValue();
-			}
-			return null;
-		});
+		Optional<DifferenceInfo<?, ?>> info = cachedDifferences.get(type);
+		if (info == null) {
+			info = cachedDifferences.computeIfAbsent(type, c -> {
+				if (differences.containsKey(type))
+					return Optional.of(differences.get(type));
+				for (Map.Entry<Class<?>, DifferenceInfo<?, ?>> entry : differences.entrySet()) {
+					if (entry.getKey().isAssignableFrom(type))
+						return Optional.of(entry.getValue());
+				}
+				return Optional.empty();
+			});
+		}
+		return (DifferenceInfo<T, ?>) info.orElse(null);
 	}
 
 	public static <T, R> Operation<T, T, R> getDifference(Class<T> type, Class<R> returnType) {
@@ -249,16 +267,19 @@ public final class Arithmetics {
 	public static <R, T extends R> R getDefaultValue(Class<T> type) {
 		if (Skript.isAcceptRegistrations())
 			throw new SkriptAPIException("Default values cannot be retrieved until Skript has finished registrations.");
-		Supplier<R> supplier = (Supplier<R>) cachedDefaultValues.computeIfAbsent(type, c -> {
-			if (defaultValues.containsKey(type))
-				return defaultValues.get(type);
-			for (Map.Entry<Class<?>, Supplier<?>> entry : defaultValues.entrySet()) {
-				if (entry.getKey().isAssignableFrom(type))
-					return entry.getValue();
-			}
-			return null;
-		});
-		return supplier == null ? null : supplier.get();
+		Optional<Supplier<?>> supplier = cachedDefaultValues.get(type);
+		if (supplier == null) {
+			supplier = cachedDefaultValues.computeIfAbsent(type, c -> {
+				if (defaultValues.containsKey(type))
+					return Optional.of(defaultValues.get(type));
+				for (Map.Entry<Class<?>, Supplier<?>> entry : defaultValues.entrySet()) {
+					if (entry.getKey().isAssignableFrom(type))
+						return Optional.of(entry.getValue());
+				}
+				return Optional.empty();
+			});
+		}
+		return supplier.map(value -> (R) value.get()).orElse(null);
 	}
 
 	private static void assertIsOperationsDoneLoading() {
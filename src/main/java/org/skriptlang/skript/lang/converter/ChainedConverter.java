@@ -43,19 +43,41 @@ final class ChainedConverter<F, M, T> implements Converter<F, T> {
 	private final ConverterInfo<F, M> first;
 	private final ConverterInfo<M, T> second;
 
+	/**
+	 * All converters of this chain in order, with nested chains flattened,
+	 *  so that converting through a long chain is a single loop rather than nested calls.
+	 */
+	@SuppressWarnings("rawtypes")
+	private final Converter[] steps;
+
 	ChainedConverter(ConverterInfo<F, M> first, ConverterInfo<M, T> second) {
 		this.first = first;
 		this.second = second;
+		Converter<?, ?>[] firstSteps = getSteps(first.getConverter());
+		Converter<?, ?>[] secondSteps = getSteps(second.getConverter());
+		this.steps = new Converter[firstSteps.length + secondSteps.length];
+		System.arraycopy(firstSteps, 0, steps, 0, firstSteps.length);
+		System.arraycopy(secondSteps, 0, steps, firstSteps.length, secondSteps.length);
+	}
+
+	private static Converter<?, ?>[] getSteps(Converter<?, ?> converter) {
+		if (converter instanceof ChainedConverter)
+			return ((ChainedConverter<?, ?, ?>) converter).steps;
+		return new Converter[] {converter};
 	}
 
 	@Override
 	@Nullable
+	@SuppressWarnings("unchecked")
 	public T convert(F from) {
-		M middle = first.getConverter().convert(from);
-		if (middle == null) {
-			return null;
+		Object converted = from;
+		for (Converter<Object, Object> step : (Converter<Object, Object>[]) steps) {
+			converted = step.convert(converted);
+			if (converted == null) {
+				return null;
+			}
 		}
-		return second.getConverter().convert(middle);
+		return (T) converted;
 	}
 
 	@Override
@@ -20,9 +20,9 @@ package org.skriptlang.skript.lang.converter;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
-import ch.njol.util.Pair;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
+import org.skriptlang.skript.lang.util.ClassPairCache;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
@@ -45,6 +45,13 @@ public final class Converters {
 	 */
 	private static final List<ConverterInfo<?, ?>> CONVERTERS = new ArrayList<>(50);
 
+	/**
+	 * An index of {@link #CONVERTERS} by their exact 'from' and 'to' types.
+	 * This is used to avoid scanning the list when looking for an exact match, which is done for every possible chain.
+	 * It has to be modified together with {@link #CONVERTERS}.
+	 */
+	private static final Map<Class<?>, Map<Class<?>, ConverterInfo<?, ?>>> EXACT_CONVERTERS = new HashMap<>(50);
+
 	/**
 	 * @return An unmodifiable list containing all registered {@link ConverterInfo}s.
 	 * Please note that this does not include any special Converters resolved by Skript during runtime.
@@ -58,11 +65,11 @@ public final class Converters {
 	}
 
 	/**
-	 * A map for quickly access converters that have already been resolved.
-	 * Some pairs may point to a null value, indicating that no converter exists between the two types.
+	 * A cache for quickly accessing converters that have already been resolved.
+	 * Pairs of types that have no converter between them are cached as well.
 	 * This is useful for skipping complex lookups that may require chaining.
 	 */
-	private static final Map<Pair<Class<?>, Class<?>>, ConverterInfo<?, ?>> QUICK_ACCESS_CONVERTERS = new HashMap<>(50);
+	private static final ClassPairCache<ConverterInfo<?, ?>> QUICK_ACCESS_CONVERTERS = new ClassPairCache<>(Converters::getConverterInfo_i);
 
 	/**
 	 * Registers a new Converter with Skript's collection of Converters.
@@ -92,7 +99,7 @@ public final class Converters {
 						"A Converter from '" + fromType + "' to '" + toType + "' already exists!"
 				);
 			}
-			CONVERTERS.add(info);
+			addConverter_i(info);
 		}
 	}
 
@@ -126,7 +133,7 @@ public final class Converters {
 						ConverterInfo<F, M> info1 = (ConverterInfo<F, M>) unknownInfo1;
 						ConverterInfo<M, T> info2 = (ConverterInfo<M, T>) unknownInfo2;
 
-						CONVERTERS.add(new ConverterInfo<>(
+						addConverter_i(new ConverterInfo<>(
 							info1.getFrom(),
 							info2.getTo(),
 							new ChainedConverter<>(info1, info2),
@@ -146,7 +153,7 @@ public final class Converters {
 						ConverterInfo<M, T> info1 = (ConverterInfo<M, T>) unknownInfo1;
 						ConverterInfo<F, M> info2 = (ConverterInfo<F, M>) unknownInfo2;
 
-						CONVERTERS.add(new ConverterInfo<>(
+						addConverter_i(new ConverterInfo<>(
 							info2.getFrom(),
 							info1.getTo(),
 							new ChainedConverter<>(info2, info1),
@@ -160,17 +167,31 @@ public final class Converters {
 		}
 	}
 
+	/**
+	 * Internal method. All calling locations are expected to manually synchronize this method if necessary.
+	 * Adds a converter to {@link #CONVERTERS} and {@link #EXACT_CONVERTERS}.
+	 */
+	private static void addConverter_i(ConverterInfo<?, ?> info) {
+		CONVERTERS.add(info);
+		EXACT_CONVERTERS.computeIfAbsent(info.getFrom(), from -> new HashMap<>()).put(info.getTo(), info);
+	}
+
+	/**
+	 * Internal method. All calling locations are expected to manually synchronize this method if necessary.
+	 * @return The ConverterInfo of the Converter that EXACTLY matches the provided types, or null if there is none.
+	 */
+	@Nullable
+	private static ConverterInfo<?, ?> getExactConverterInfo_i(Class<?> fromType, Class<?> toType) {
+		Map<Class<?>, ConverterInfo<?, ?>> converters = EXACT_CONVERTERS.get(fromType);
+		return converters != null ? converters.get(toType) : null;
+	}
+
 	/**
 	 * Internal method. All calling locations are expected to manually synchronize this method if necessary.
 	 * @return Whether a Converter exists that EXACTLY matches the provided types.
 	 */
 	private static boolean exactConverterExists_i(Class<?> fromType, Class<?> toType) {
-		for (ConverterInfo<?, ?> info : CONVERTERS) {
-			if (fromType == info.getFrom() && toType == info.getTo()) {
-				return true;
-			}
-		}
-		return false;
+		return getExactConverterInfo_i(fromType, toType) != null;
 	}
 
 	/**
@@ -244,19 +265,7 @@ public final class Converters {
 	public static <F, T> ConverterInfo<F, T> getConverterInfo(Class<F> fromType, Class<T> toType) {
 		assertIsDoneLoading();
 
-		Pair<Class<?>, Class<?>> pair = new Pair<>(fromType, toType);
-		ConverterInfo<F, T> converter;
-
-		synchronized (QUICK_ACCESS_CONVERTERS) {
-			if (QUICK_ACCESS_CONVERTERS.containsKey(pair)) {
-				converter = (ConverterInfo<F, T>) QUICK_ACCESS_CONVERTERS.get(pair);
-			} else { // Compute QUICK_ACCESS for provided types
-				converter = getConverterInfo_i(fromType, toType);
-				QUICK_ACCESS_CONVERTERS.put(pair, converter);
-			}
-		}
-
-		return converter;
+		return (ConverterInfo<F, T>) QUICK_ACCESS_CONVERTERS.get(fromType, toType);
 	}
 
 	/**
@@ -281,10 +290,9 @@ public final class Converters {
 		Class<T> toType
 	) {
 		// Check for an exact match
-		for (ConverterInfo<?, ?> info : CONVERTERS) {
-			if (fromType == info.getFrom() && toType == info.getTo()) {
-				return (ConverterInfo<F, T>) info;
-			}
+		ConverterInfo<?, ?> exactInfo = getExactConverterInfo_i(fromType, toType);
+		if (exactInfo != null) {
+			return (ConverterInfo<F, T>) exactInfo;
 		}
 
 		// Check for an almost perfect match
@@ -41,7 +41,7 @@ import java.util.stream.Collectors;
  */
 public final class Script {
 
-	private final Config config;
+	private Config config;
 
 	private final List<Structure> structures;
 
@@ -64,6 +64,15 @@ public final class Script {
 		return config;
 	}
 
+	/**
+	 * Internal method for replacing the Config of this Script after some of its Structures were reloaded.
+	 * @param config The new contents of this Script.
+	 */
+	@ApiStatus.Internal
+	public void setConfig(Config config) {
+		this.config = config;
+	}
+
 	/**
 	 * @return An unmodifiable list of all Structures within this Script.
 	 */
@@ -72,6 +81,16 @@ public final class Script {
 		return Collections.unmodifiableList(structures);
 	}
 
+	/**
+	 * Internal method for replacing the Structures of this Script after some of them were reloaded.
+	 * @param structures The Structures this Script now contains.
+	 */
+	@ApiStatus.Internal
+	public void setStructures(List<Structure> structures) {
+		this.structures.clear();
+		this.structures.addAll(structures);
+	}
+
 	// Warning Suppressions
 
 	private final Set<ScriptWarning> suppressedWarnings = new HashSet<>(ScriptWarning.values().length);
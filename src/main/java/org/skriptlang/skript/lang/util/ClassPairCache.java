@@ -0,0 +1,84 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.lang.util;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe cache for values that are resolved for a pair of classes, such as the converter between two types.
+ * <br>
+ * Looking up a pair that has already been resolved neither locks nor allocates.
+ * Pairs that were resolved to have no value are cached as well, so that unsuccessful lookups are not repeated.
+ *
+ * @param <V> The type of the cached values.
+ */
+public final class ClassPairCache<V> {
+
+	/**
+	 * Marks pairs that were resolved to have no value, as {@link ConcurrentHashMap} does not allow null values.
+	 */
+	private static final Object NONE = new Object();
+
+	private final Map<Class<?>, Map<Class<?>, Object>> cache = new ConcurrentHashMap<>();
+
+	private final BiFunction<Class<?>, Class<?>, V> resolver;
+
+	/**
+	 * @param resolver The function resolving the value of a pair of classes, which may return null if the pair has no value.
+	 *  It may look up other pairs of this cache.
+	 */
+	public ClassPairCache(BiFunction<Class<?>, Class<?>, V> resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Gets the value of a pair of classes, resolving it if it has not been cached yet.
+	 * If multiple threads resolve the same pair at the same time, the value that is cached first is returned to all of them.
+	 * @param first The first class of the pair.
+	 * @param second The second class of the pair.
+	 * @return The value of the pair, or null if it has none.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V get(Class<?> first, Class<?> second) {
+		Map<Class<?>, Object> values = cache.get(first);
+		if (values == null) {
+			values = new ConcurrentHashMap<>();
+			Map<Class<?>, Object> existing = cache.putIfAbsent(first, values);
+			if (existing != null)
+				values = existing;
+		}
+
+		Object value = values.get(second);
+		if (value == null) {
+			V resolved = resolver.apply(first, second);
+			Object toCache = resolved != null ? resolved : NONE;
+			value = values.putIfAbsent(second, toCache);
+			if (value == null)
+				value = toCache;
+		}
+
+		return value != NONE ? (V) value : null;
+	}
+
+}
@@ -0,0 +1,119 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.lang.util;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * A small cache for a single call site, such as a syntax element, that remembers the values resolved
+ *  for the last few pairs of classes it has seen.
+ * <br>
+ * Most call sites only ever see one or a few combinations of types, so comparing a handful of entries by identity
+ *  is cheaper than looking the pair up in a global registry.
+ * Once more than {@link #SIZE} combinations are seen, the oldest entries are replaced.
+ * <br>
+ * The cache may be used from multiple threads. As entries are immutable, a race may only cause an extra miss.
+ *
+ * @param <V> The type of the cached values.
+ * @see ClassPairCache
+ */
+public final class ClassPairInlineCache<V> {
+
+	/**
+	 * The maximum amount of pairs that are remembered.
+	 */
+	public static final int SIZE = 4;
+
+	private static final class Entry<V> {
+
+		private final Class<?> first;
+		private final Class<?> second;
+		@Nullable
+		private final V value;
+
+		private Entry(Class<?> first, Class<?> second, @Nullable V value) {
+			this.first = first;
+			this.second = second;
+			this.value = value;
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private final Entry<V>[] entries = new Entry[SIZE];
+	private int nextEntry = 0;
+
+	private final BiFunction<Class<?>, Class<?>, V> resolver;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param resolver The function resolving the value of a pair of classes on a miss, which may return null if the pair has no value.
+	 */
+	public ClassPairInlineCache(BiFunction<Class<?>, Class<?>, V> resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Gets the value of a pair of classes, resolving it if it is not one of the pairs remembered by this cache.
+	 * @param first The first class of the pair.
+	 * @param second The second class of the pair.
+	 * @return The value of the pair, or null if it has none.
+	 */
+	@Nullable
+	public V get(Class<?> first, Class<?> second) {
+		for (Entry<V> entry : entries) {
+			if (entry != null && entry.first == first && entry.second == second) {
+				hits.increment();
+				return entry.value;
+			}
+		}
+
+		misses.increment();
+		V value = resolver.apply(first, second);
+		int index = nextEntry;
+		nextEntry = (index + 1) % SIZE;
+		entries[index] = new Entry<>(first, second, value);
+		return value;
+	}
+
+	/**
+	 * @return How often a value was found in this cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return How often a value had to be resolved.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "inline cache: " + getHits() + " hits, " + getMisses() + " misses";
+	}
+
+}
@@ -0,0 +1,77 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+	private static void tick(TimingWheel wheel, int ticks) {
+		for (int i = 0; i < ticks; i++)
+			wheel.tick();
+	}
+
+	@Test
+	public void testDeadlines() {
+		TimingWheel wheel = new TimingWheel();
+		List<Long> ran = new ArrayList<>();
+		for (long delay : new long[] {1, 63, 64, 65, 4095, 4096, 5000, 300_000}) {
+			wheel.schedule(() -> ran.add(wheel.getCurrentTick()), delay);
+		}
+		tick(wheel, 300_000);
+		assertEquals(Arrays.asList(1L, 63L, 64L, 65L, 4095L, 4096L, 5000L, 300_000L), ran);
+		assertEquals(0, wheel.getPending());
+	}
+
+	@Test
+	public void testSameTickOrder() {
+		TimingWheel wheel = new TimingWheel();
+		List<String> ran = new ArrayList<>();
+		wheel.schedule(() -> ran.add("a"), 100);
+		tick(wheel, 50);
+		// due in the same tick as 'a', but scheduled directly into the lowest level
+		wheel.schedule(() -> ran.add("b"), 50);
+		tick(wheel, 49);
+		wheel.schedule(() -> ran.add("c"), 1);
+		tick(wheel, 1);
+		assertEquals(Arrays.asList("a", "b", "c"), ran);
+	}
+
+	@Test
+	public void testCancel() {
+		TimingWheel wheel = new TimingWheel();
+		List<String> ran = new ArrayList<>();
+		TimingWheel.Entry cancelled = wheel.schedule(() -> ran.add("cancelled"), 200);
+		wheel.schedule(() -> ran.add("kept"), 200);
+		assertTrue(cancelled.cancel());
+		assertFalse(cancelled.cancel());
+		assertEquals(1, wheel.getPending());
+		tick(wheel, 200);
+		assertEquals(Arrays.asList("kept"), ran);
+	}
+
+}
@@ -18,13 +18,25 @@
  */
 package org.skriptlang.skript.test.tests.classes;
 
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.bukkit.GameMode;
 import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
 import org.bukkit.entity.Snowball;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.bukkit.event.inventory.InventoryType;
 import org.junit.Test;
 
+import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.entity.CreeperData;
 import ch.njol.skript.entity.EntityType;
 import ch.njol.skript.entity.SimpleEntityData;
@@ -71,4 +83,40 @@ public class ClassesTest {
 			Classes.serialize(o); // includes a deserialisation test
 	}
 
+	@Test
+	public void concurrentLookupTest() throws InterruptedException {
+		List<ClassInfo<?>> classInfos = Classes.getClassInfos();
+		Class<?>[] lookups = {Player.class, Snowball.class, Integer.class, Double.class, String.class, Timespan.class, Object.class};
+		ClassInfo<?>[] expected = new ClassInfo[lookups.length];
+		for (int i = 0; i < lookups.length; i++)
+			expected[i] = Classes.getSuperClassInfo(lookups[i]);
+
+		int threadCount = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		CountDownLatch start = new CountDownLatch(1);
+		for (int thread = 0; thread < threadCount; thread++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+					for (int iteration = 0; iteration < 1000; iteration++) {
+						for (ClassInfo<?> classInfo : classInfos) {
+							assertSame(classInfo, Classes.getExactClassInfo(classInfo.getC()));
+							assertSame(classInfo, Classes.getClassInfoNoError(classInfo.getCodeName()));
+						}
+						for (int i = 0; i < lookups.length; i++)
+							assertSame(expected[i], Classes.getSuperClassInfo(lookups[i]));
+					}
+				} catch (Throwable throwable) {
+					failure.compareAndSet(null, throwable);
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+		if (failure.get() != null)
+			throw new AssertionError(failure.get());
+	}
+
 }
@@ -47,6 +47,9 @@ public class NodeTest {
 				{"#########", "", "#########"},
 				{"a##b#c##d#e", "a#b", "#c##d#e"},
 				{" a ## b # c ## d # e ", " a # b ", "# c ## d # e "},
+				{"ab #cd", "ab ", "#cd"},
+				{"\t  # ab", "", "# ab"},
+				{"\tab: #-# cd", "\tab: ", "#-# cd"},
 		};
 		for (String[] d : data) {
 			NonNullPair<String, String> p = Node.splitLine(d[0]);
@@ -0,0 +1,170 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.test.tests.lang;
+
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.config.Config;
+import ch.njol.skript.effects.Delay;
+import ch.njol.skript.expressions.base.WrapperExpression;
+import ch.njol.skript.lang.Effect;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.ParseContext;
+import ch.njol.skript.lang.SkriptParser;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.util.ContextlessEvent;
+import ch.njol.skript.lang.util.ExpressionMemo;
+import ch.njol.skript.lang.util.MemoizableExpression;
+import ch.njol.skript.lang.util.SimpleLiteral;
+import ch.njol.skript.test.runner.SkriptJUnitTest;
+import ch.njol.skript.variables.Variables;
+import ch.njol.util.Kleenean;
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Tests that the {@link ExpressionMemo} reuses values within a statement, hands out copies of them,
+ *  and forgets them after effects, function calls and delays.
+ */
+public class ExpressionMemoTest extends SkriptJUnitTest {
+
+	private final Event event = ContextlessEvent.get();
+
+	/**
+	 * How often {@link #expression} calculated its value.
+	 */
+	private int calculations;
+
+	private final Expression<Location> expression = createExpression();
+
+	private Expression<Location> createExpression() {
+		// a local class, so that it isn't run as a test
+		class CountingExpression extends WrapperExpression<Location> implements MemoizableExpression<Location> {
+
+			private CountingExpression() {
+				setExpr(new SimpleLiteral<>(getTestLocation(), false));
+			}
+
+			@Override
+			protected Location[] get(Event event) {
+				calculations++;
+				return new Location[] {getTestLocation()};
+			}
+
+			@Override
+			@Nullable
+			public Object getMemoState() {
+				return null;
+			}
+
+			@Override
+			public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+				return true;
+			}
+
+			@Override
+			public String toString(@Nullable Event event, boolean debug) {
+				return "counting location";
+			}
+
+		}
+		return new CountingExpression();
+	}
+
+	private boolean wasEnabled;
+
+	@Before
+	public void enableMemo() throws IOException {
+		wasEnabled = ExpressionMemo.isEnabled();
+		setMemoEnabled(true);
+		Assert.assertTrue("a memo was already started for the event", ExpressionMemo.start(event));
+	}
+
+	@After
+	public void restoreMemo() throws IOException {
+		ExpressionMemo.stop(event);
+		Variables.removeLocals(event);
+		setMemoEnabled(wasEnabled);
+	}
+
+	private static void setMemoEnabled(boolean enabled) throws IOException {
+		Config config = new Config("memoize expressions: " + enabled, "ExpressionMemoTest.sk", false, false, ":");
+		SkriptConfig.memoizeExpressions.set(config, "");
+	}
+
+	@Test
+	public void testReuse() {
+		Location location = expression.getSingle(event);
+		Assert.assertNotNull(location);
+		location.add(100, 0, 0);
+
+		Location reused = expression.getSingle(event);
+		Assert.assertEquals("the value wasn't reused", 1, calculations);
+		Assert.assertEquals("changing a value changed the remembered value", getTestLocation(), reused);
+	}
+
+	@Test
+	public void testEffect() {
+		expression.getSingle(event);
+		Effect effect = new Effect() {
+			@Override
+			protected void execute(Event event) { }
+
+			@Override
+			public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+				return true;
+			}
+
+			@Override
+			public String toString(@Nullable Event event, boolean debug) {
+				return "memo test effect";
+			}
+		};
+		TriggerItem.walk(effect, event);
+		expression.getSingle(event);
+		Assert.assertEquals("the value was reused after an effect", 2, calculations);
+	}
+
+	@Test
+	public void testFunctionCall() {
+		expression.getSingle(event);
+		Expression<? extends Number> call = new SkriptParser("floor(1.5)", SkriptParser.ALL_FLAGS, ParseContext.DEFAULT)
+			.parseExpression(Number.class);
+		Assert.assertNotNull("the function call couldn't be parsed", call);
+		call.getSingle(event);
+		expression.getSingle(event);
+		Assert.assertEquals("the value was reused after a function call", 2, calculations);
+	}
+
+	@Test
+	public void testDelay() {
+		expression.getSingle(event);
+		Delay.addDelayedEvent(event);
+		expression.getSingle(event);
+		Assert.assertEquals("the value was reused after a delay", 2, calculations);
+	}
+
+}
@@ -0,0 +1,205 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.test.tests.lang;
+
+import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.Literal;
+import ch.njol.skript.lang.LoopSection;
+import ch.njol.skript.lang.SkriptEvent;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerCompiler;
+import ch.njol.skript.lang.TriggerContext;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.util.ContextlessEvent;
+import ch.njol.util.Kleenean;
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests that triggers compiled by the {@link TriggerCompiler} execute the same items in the same order as uncompiled ones.
+ */
+public class TriggerCompilerTest {
+
+	private static final String TRIGGER_NAME = "trigger compiler test trigger";
+
+	/**
+	 * The names of the items executed by the current run of the trigger, in order.
+	 */
+	private final List<String> executed = new ArrayList<>();
+
+	@Test
+	public void testCompiledTrigger() {
+		/*
+		 * a
+		 * b
+		 * loop 3 times:
+		 *     c
+		 *     d
+		 *     condition (fails once e has been executed)
+		 *     e
+		 * f
+		 * g
+		 */
+		List<TriggerItem> body = link(
+			item("c"),
+			item("d"),
+			new TriggerItem() {
+				@Override
+				protected boolean run(Event event) {
+					executed.add("condition");
+					return !executed.contains("e");
+				}
+
+				@Override
+				public String toString(@Nullable Event event, boolean debug) {
+					return "condition";
+				}
+			},
+			item("e")
+		);
+		LoopSection loop = loop(3, body);
+		List<TriggerItem> items = link(item("a"), item("b"), loop, item("f"), item("g"));
+		Trigger trigger = new Trigger(null, TRIGGER_NAME, event(), items);
+
+		List<String> expected = Arrays.asList(
+			"a", "b",
+			"c", "d", "condition", "e",
+			"c", "d", "condition",
+			"c", "d", "condition",
+			"f", "g"
+		);
+		Assert.assertTrue("the uncompiled trigger failed", TriggerItem.walk(trigger, ContextlessEvent.get()));
+		Assert.assertEquals("the uncompiled trigger executed the wrong items", expected, executed);
+
+		Assert.assertEquals("not every plain item was compiled", 8, TriggerCompiler.compile(trigger));
+		executed.clear();
+		Assert.assertTrue("the compiled trigger failed", TriggerItem.walk(trigger, ContextlessEvent.get()));
+		Assert.assertEquals("the compiled trigger executed different items", expected, executed);
+	}
+
+	/**
+	 * @return An item recording its name when it is executed
+	 */
+	private TriggerItem item(String name) {
+		return new TriggerItem() {
+			@Override
+			protected boolean run(Event event) {
+				executed.add(name);
+				return true;
+			}
+
+			@Override
+			public String toString(@Nullable Event event, boolean debug) {
+				return name;
+			}
+		};
+	}
+
+	/**
+	 * Links the given items like {@link ch.njol.skript.ScriptLoader#loadItems(SectionNode)} does.
+	 */
+	private static List<TriggerItem> link(TriggerItem... items) {
+		for (int i = 0; i < items.length - 1; i++)
+			items[i].setNext(items[i + 1]);
+		return Arrays.asList(items);
+	}
+
+	/**
+	 * @return A loop executing the given items the given amount of times, set up like {@link ch.njol.skript.sections.SecWhile}.
+	 */
+	private static LoopSection loop(long times, List<TriggerItem> items) {
+		return new LoopSection() {
+
+			@Nullable
+			private TriggerItem actualNext;
+
+			{
+				setTriggerItems(items);
+				super.setNext(this);
+			}
+
+			@Override
+			public boolean init(Expression<?>[] expressions, int matchedPattern, Kleenean isDelayed,
+								ParseResult parseResult, SectionNode sectionNode, List<TriggerItem> triggerItems) {
+				return true;
+			}
+
+			@Override
+			@Nullable
+			protected TriggerItem walk(Event event) {
+				TriggerContext.LoopState state = getLoopState(event);
+				if (state == null || state.getCounter() < times) {
+					if (state == null)
+						state = TriggerContext.get(event).getLoopState(this);
+					state.increaseCounter();
+					return walk(event);
+				}
+				exit(event);
+				debug(event, false);
+				return actualNext;
+			}
+
+			@Override
+			public LoopSection setNext(@Nullable TriggerItem next) {
+				actualNext = next;
+				return this;
+			}
+
+			@Override
+			@Nullable
+			public TriggerItem getActualNext() {
+				return actualNext;
+			}
+
+			@Override
+			public String toString(@Nullable Event event, boolean debug) {
+				return "loop " + times + " times";
+			}
+
+		};
+	}
+
+	private static SkriptEvent event() {
+		return new SkriptEvent() {
+			@Override
+			public boolean init(Literal<?>[] args, int matchedPattern, ParseResult parseResult) {
+				return true;
+			}
+
+			@Override
+			public boolean check(Event event) {
+				return true;
+			}
+
+			@Override
+			public String toString(@Nullable Event event, boolean debug) {
+				return TRIGGER_NAME;
+			}
+		};
+	}
+
+}
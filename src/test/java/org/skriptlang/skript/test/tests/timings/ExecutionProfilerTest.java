@@ -0,0 +1,170 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.test.tests.timings;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.lang.Literal;
+import ch.njol.skript.lang.SkriptEvent;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.util.ContextlessEvent;
+import ch.njol.skript.timings.ExecutionProfiler;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Tests the {@link ExecutionProfiler} and the '/skript profile' command controlling it.
+ */
+public class ExecutionProfilerTest {
+
+	private static final String ITEM_NAME = "execution profiler test item";
+	private static final String TRIGGER_NAME = "execution profiler test trigger";
+
+	private final TriggerItem item = new TriggerItem() {
+		@Override
+		protected boolean run(Event event) {
+			// make sure the item has a measurable self time
+			LockSupport.parkNanos(1_000_000);
+			return true;
+		}
+
+		@Override
+		public String toString(@Nullable Event event, boolean debug) {
+			return ITEM_NAME;
+		}
+	};
+
+	@Test
+	public void testShortLivedThreads() throws InterruptedException, IOException {
+		Assert.assertTrue("profiling was already running", ExecutionProfiler.startProfiling());
+		int threads = 20;
+		for (int i = 0; i < threads; i++) {
+			Thread thread = new Thread(() -> ExecutionProfiler.exit(ExecutionProfiler.enter(item)));
+			thread.start();
+			thread.join();
+		}
+		File stacksFile = ExecutionProfiler.stopProfiling();
+		Assert.assertNotNull("the profile wasn't written", stacksFile);
+
+		// every thread ran after the previous one was done, so they all recorded into the same call tree
+		List<String> stacks = Files.readAllLines(stacksFile.toPath(), StandardCharsets.UTF_8).stream()
+			.filter(line -> line.contains(ITEM_NAME))
+			.collect(Collectors.toList());
+		Assert.assertTrue("short-lived threads didn't share their call tree: " + stacks, stacks.size() <= 1);
+
+		File summaryFile = new File(stacksFile.getParentFile(), stacksFile.getName().replace(".txt", ".csv"));
+		List<String> summary = Files.readAllLines(summaryFile.toPath(), StandardCharsets.UTF_8).stream()
+			.filter(line -> line.contains(ITEM_NAME))
+			.collect(Collectors.toList());
+		Assert.assertEquals("the item wasn't summarized exactly once: " + summary, 1, summary.size());
+		Assert.assertEquals("not all executions were counted", String.valueOf(threads), summary.get(0).split(",")[2]);
+
+		Files.delete(stacksFile.toPath());
+		Files.delete(summaryFile.toPath());
+	}
+
+	@Test
+	public void testContinuation() throws IOException {
+		SkriptEvent event = new SkriptEvent() {
+			@Override
+			public boolean init(Literal<?>[] args, int matchedPattern, ParseResult parseResult) {
+				return true;
+			}
+
+			@Override
+			public boolean check(Event event) {
+				return true;
+			}
+
+			@Override
+			public String toString(@Nullable Event event, boolean debug) {
+				return TRIGGER_NAME;
+			}
+		};
+		new Trigger(null, TRIGGER_NAME, event, Collections.singletonList(item));
+
+		Assert.assertTrue("profiling was already running", ExecutionProfiler.startProfiling());
+		// continues the trigger at the item, like a delay does
+		TriggerItem.walk(item, ContextlessEvent.get());
+		File stacksFile = ExecutionProfiler.stopProfiling();
+		Assert.assertNotNull("the profile wasn't written", stacksFile);
+		File summaryFile = new File(stacksFile.getParentFile(), stacksFile.getName().replace(".txt", ".csv"));
+
+		List<String> stacks = Files.readAllLines(stacksFile.toPath(), StandardCharsets.UTF_8).stream()
+			.filter(line -> line.contains(ITEM_NAME))
+			.collect(Collectors.toList());
+		Files.delete(stacksFile.toPath());
+		Files.delete(summaryFile.toPath());
+		Assert.assertEquals("the item wasn't recorded exactly once: " + stacks, 1, stacks.size());
+		Assert.assertTrue("the continued item wasn't recorded under its trigger: " + stacks,
+			stacks.get(0).contains(TRIGGER_NAME + ";"));
+	}
+
+	@Test
+	public void testProfileCommand() throws IOException {
+		File folder = new File(Skript.getInstance().getDataFolder(), "profiles");
+		Set<File> previousProfiles = new HashSet<>(getProfiles(folder));
+
+		CommandSender sender = Bukkit.getConsoleSender();
+		Assert.assertFalse("profiling was already running", ExecutionProfiler.isProfiling());
+
+		Bukkit.dispatchCommand(sender, "skript profile stop");
+		Assert.assertFalse("stopping without profiling started it", ExecutionProfiler.isProfiling());
+
+		Bukkit.dispatchCommand(sender, "skript profile invalid");
+		Assert.assertFalse("an invalid argument started profiling", ExecutionProfiler.isProfiling());
+
+		Bukkit.dispatchCommand(sender, "skript profile start");
+		Assert.assertTrue("'start' didn't start profiling", ExecutionProfiler.isProfiling());
+
+		Bukkit.dispatchCommand(sender, "skript profile start");
+		Assert.assertTrue("starting twice stopped profiling", ExecutionProfiler.isProfiling());
+
+		Bukkit.dispatchCommand(sender, "skript profile stop");
+		Assert.assertFalse("'stop' didn't stop profiling", ExecutionProfiler.isProfiling());
+
+		for (File profile : getProfiles(folder)) {
+			if (!previousProfiles.contains(profile))
+				Files.delete(profile.toPath());
+		}
+	}
+
+	private static List<File> getProfiles(File folder) {
+		File[] files = folder.listFiles();
+		return files == null ? Collections.emptyList() : Arrays.asList(files);
+	}
+
+}